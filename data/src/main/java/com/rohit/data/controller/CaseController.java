@@ -1,22 +1,40 @@
 package com.rohit.data.controller;
 
+import com.rohit.data.dto.CaseChangePage;
+import com.rohit.data.dto.CaseImportReport;
 import com.rohit.data.dto.CreateCaseRequest;
 import com.rohit.data.entity.Case;
+import com.rohit.data.service.CaseImportService;
 import com.rohit.data.service.CaseService;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "*")
 @RestController
 @RequestMapping("/data")
 public class CaseController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final int MAX_EXISTS_IDS = 1000;
+    private static final int MAX_CHANGES = 1000;
+
     private final CaseService caseService;
+    private final CaseImportService caseImportService;
 
-    public CaseController(CaseService caseService) {
+    public CaseController(CaseService caseService, CaseImportService caseImportService) {
         this.caseService = caseService;
+        this.caseImportService = caseImportService;
     }
 
     @PostMapping("/cases")
@@ -24,12 +42,26 @@ public class CaseController {
         try {
             Case saved = caseService.createCase(request);
             return ResponseEntity.ok(saved);
+        } catch (ResponseStatusException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to create case: " + e.getMessage());
         }
     }
 
+    // API: POST /data/cases/import  (body: NDJSON or CSV with a header row, streamed)
+    @PostMapping(value = "/cases/import", consumes = {NDJSON, CSV})
+    public ResponseEntity<CaseImportReport> importCases(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "notify", defaultValue = "NONE") CaseImportService.Notify notify,
+            InputStream body) throws IOException {
+        CaseImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? CaseImportService.Format.CSV : CaseImportService.Format.NDJSON;
+        return ResponseEntity.ok(caseImportService.importCases(body, format, chunkSize, notify));
+    }
+
     @GetMapping("/cases/next-id")
     public ResponseEntity<Long> getNextCaseId() {
         Long nextId = caseService.getNextCaseId();
@@ -42,4 +74,30 @@ public class CaseController {
         boolean exists = caseService.caseExists(id);
         return ResponseEntity.ok(exists);
     }
+
+    // API: POST /data/exists  (body: [id, ...]) -> {"id": true|false, ...}
+    @PostMapping("/exists")
+    public ResponseEntity<Map<Long, Boolean>> casesExist(@RequestBody List<Long> ids) {
+        if (ids.size() > MAX_EXISTS_IDS || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(caseService.casesExist(ids));
+    }
+
+    // API: GET /data/changes?since=<cursor>&limit=<n>  (start with since=0, resume with nextCursor)
+    @GetMapping("/changes")
+    public ResponseEntity<CaseChangePage> getChanges(
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        if (since < 0 || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(caseService.getChanges(since, Math.min(limit, MAX_CHANGES)));
+    }
+
+    // API: GET /data/changes/head -> cursor to follow from after loading current state (nothing before it can still commit)
+    @GetMapping("/changes/head")
+    public ResponseEntity<Long> getChangesHead() {
+        return ResponseEntity.ok(caseService.getSettledChangeHead());
+    }
 }
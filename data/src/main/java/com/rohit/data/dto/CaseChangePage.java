@@ -0,0 +1,19 @@
+package com.rohit.data.dto;
+
+import com.rohit.data.entity.Case;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CaseChangePage {
+    private List<CaseChange> changes = new ArrayList<>();
+    private long nextCursor;        // pass back as ?since= to resume
+    private boolean hasMore;        // more changes may be available right away
+
+    // The case as it is now, not as it was at the change
+    public record CaseChange(long seq, String type, LocalDateTime changedAt, Case caseData) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.rohit.data.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CaseImportReport {
+    private long received;
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private long elapsedMillis;
+    private List<RejectedRow> rejectedRows = new ArrayList<>();  // first max-reported rejections
+    private boolean rejectedRowsTruncated;
+
+    public record RejectedRow(long line, Long id, String reason) {
+    }
+}
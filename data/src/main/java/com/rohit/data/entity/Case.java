@@ -1,9 +1,11 @@
 package com.rohit.data.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,7 +15,7 @@ import java.time.LocalDateTime;
 @Data
 @Getter
 @Setter
-public class Case {
+public class Case implements Persistable<Long> {
 
     @Id
     private Long id;
@@ -36,4 +38,22 @@ public class Case {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // Ids are assigned before save, so Spring Data cannot tell new from existing by id;
+    // without this, save() merges and Hibernate SELECTs the row before every INSERT
+    @Transient
+    @JsonIgnore
+    private boolean persisted;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
 }
@@ -0,0 +1,65 @@
+package com.rohit.data.refdata;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Conditional GETs against refdata-service's GET /refdata/{set}. Sending the
+ * ETag of the copy we hold means an unchanged set costs a 304 and no body.
+ */
+@Component
+public class RefDataClient {
+
+    // The {code, name} shape every reference set is served in
+    public record Entry(String code, String name) {
+    }
+
+    public record Fetched(String etag, List<Entry> entries) {
+    }
+
+    private static final ParameterizedTypeReference<List<Entry>> ENTRIES = new ParameterizedTypeReference<>() {
+    };
+
+    private final RestClient restClient;
+
+    public RefDataClient(@Value("${refdata.service.base-url}") String refdataServiceBaseUrl,
+                         @Value("${refdata.service.connect-timeout:1s}") Duration connectTimeout,
+                         @Value("${refdata.service.timeout:2s}") Duration timeout) {
+        // Without a connect timeout an unreachable host holds the refresh for the OS TCP timeout
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder()
+                .baseUrl(refdataServiceBaseUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    // The set's entries, or null when it still matches etag; throws RestClientException when unreachable
+    public Fetched fetch(String set, String etag) {
+        ResponseEntity<List<Entry>> response = restClient.get()
+                .uri("/refdata/{set}", set)
+                .headers(headers -> {
+                    if (etag != null) {
+                        headers.setIfNoneMatch(etag);
+                    }
+                })
+                .retrieve()
+                .toEntity(ENTRIES);
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return null;
+        }
+        return new Fetched(response.getHeaders().getETag(), response.getBody() == null ? List.of() : response.getBody());
+    }
+}
@@ -0,0 +1,143 @@
+package com.rohit.data.refdata;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of refdata-service's reference sets, so the write path
+ * can check a code with a map lookup instead of a network hop.
+ *
+ * The first load runs on a scheduler thread as soon as the context is up
+ * (spring.task.scheduling.pool.size gives each scheduled job its own), and
+ * every refresh after it revalidates with If-None-Match. Callers
+ * never wait on refdata-service: they read whatever snapshot is current,
+ * and when refdata-service is down the last good snapshot stays in use.
+ */
+@Slf4j
+@Component
+public class RefDataNearCache {
+
+    public static final String COUNTRIES = "countries";
+
+    // One set as last served; replaced as a whole, never modified
+    public record Snapshot(String etag, Map<String, String> names, long checkedAtMillis) {
+
+        public boolean contains(String code) {
+            return names.containsKey(code);
+        }
+    }
+
+    private final RefDataClient refDataClient;
+    private final List<String> sets;
+    private final boolean validateCountries;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> failing = new ConcurrentHashMap<>();
+
+    private final Counter updated;
+    private final Counter notModified;
+    private final Counter failed;
+    private final Counter unchecked;
+
+    public RefDataNearCache(RefDataClient refDataClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.refdata.sets:countries}") List<String> sets,
+                            @Value("${app.refdata.validate-countries:true}") boolean validateCountries) {
+        this.refDataClient = refDataClient;
+        this.sets = List.copyOf(sets);
+        this.validateCountries = validateCountries;
+
+        this.updated = meterRegistry.counter("refdata.near-cache.refresh", "result", "updated");
+        this.notModified = meterRegistry.counter("refdata.near-cache.refresh", "result", "not_modified");
+        this.failed = meterRegistry.counter("refdata.near-cache.refresh", "result", "failed");
+        this.unchecked = meterRegistry.counter("refdata.validation.unchecked");
+        for (String set : this.sets) {
+            Gauge.builder("refdata.near-cache.staleness", snapshots, s -> staleness(s.get(set)))
+                    .description("Seconds since refdata-service last confirmed this set")
+                    .tag("set", set)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    // Current copy of a set, or null until refdata-service has answered once
+    public Snapshot get(String set) {
+        return snapshots.get(set);
+    }
+
+    /**
+     * Whether a case may use this country code. Until the countries have
+     * loaded there is nothing to check against, and case creation must not
+     * depend on refdata-service being up, so the code is let through.
+     */
+    public boolean acceptsCountry(String code) {
+        if (!validateCountries) {
+            return true;
+        }
+        Snapshot countries = snapshots.get(COUNTRIES);
+        if (countries == null) {
+            unchecked.increment();
+            return true;
+        }
+        return countries.contains(code);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refdata.refresh-interval-ms:60000}")
+    public void refresh() {
+        for (String set : sets) {
+            refresh(set);
+        }
+    }
+
+    private void refresh(String set) {
+        Snapshot current = snapshots.get(set);
+        RefDataClient.Fetched fetched;
+        try {
+            fetched = refDataClient.fetch(set, current == null ? null : current.etag());
+        } catch (RestClientException e) {
+            failed.increment();
+            // One warning per outage; lookups keep using the last good snapshot
+            if (failing.put(set, Boolean.TRUE) == null) {
+                log.warn("refdata-service unavailable for {}, {}: {}", set,
+                        current == null ? "nothing loaded yet" : "keeping version " + current.etag(), e.getMessage());
+            }
+            return;
+        }
+        if (failing.remove(set) != null) {
+            log.info("refdata-service available again for {}", set);
+        }
+
+        long now = System.currentTimeMillis();
+        if (fetched == null && current != null) {
+            notModified.increment();
+            snapshots.put(set, new Snapshot(current.etag(), current.names(), now));
+            return;
+        }
+        if (fetched == null) {
+            return;
+        }
+        Map<String, String> names = new HashMap<>();
+        for (RefDataClient.Entry entry : fetched.entries()) {
+            if (entry.code() != null) {
+                names.put(entry.code(), entry.name());
+            }
+        }
+        snapshots.put(set, new Snapshot(fetched.etag(), Map.copyOf(names), now));
+        updated.increment();
+        log.info("Reference set {} loaded: {} entries, version {}", set, names.size(), fetched.etag());
+    }
+
+    private static double staleness(Snapshot snapshot) {
+        return snapshot == null ? Double.NaN : (System.currentTimeMillis() - snapshot.checkedAtMillis()) / 1000.0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.rohit.data.service;
+
+import com.rohit.data.dto.CaseChangePage;
+import com.rohit.data.entity.Case;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.ResourceHolderSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ordered feed of case changes for incremental consumers (search caches,
+ * indexes...). Each change is a case_change row written in the same
+ * transaction as the case, so the feed never shows a change that rolled back
+ * or misses one that committed. Consumers poll GET /data/changes?since=cursor.
+ *
+ * Sequence values are taken at insert but become visible at commit, so a gap
+ * in the sequence may be a transaction still in flight. Writers must run with
+ * a transaction timeout of at most writer-timeout, checked again just before
+ * commit, and changed_at is the database's transaction start. A writer still
+ * in flight behind a visible change therefore started after that change's
+ * transaction began minus writer-timeout, and commits within writer-timeout
+ * of its own start: once the change is older than the settle window (more
+ * than twice writer-timeout) on the database clock, the gap is a rollback
+ * and is skipped. Reads stop in front of younger gaps until then.
+ */
+@Service
+public class CaseChangeFeed {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO case_change (case_id, change_type, changed_at) VALUES (?, ?, LOCALTIMESTAMP)";
+
+    private static final String CHANGES_SQL = """
+            SELECT ch.id, ch.change_type, ch.changed_at, LOCALTIMESTAMP AS db_now,
+                   c.id AS case_id, c.title, c.description, c.country, c.amount, c.reporter_name, c.created_at
+            FROM case_change ch
+            JOIN cases c ON c.id = ch.case_id
+            WHERE ch.id > ?
+            ORDER BY ch.id
+            LIMIT ?
+            """;
+
+    private static final String SETTLED_HEAD_SQL =
+            "SELECT COALESCE(MAX(id), 0) FROM case_change WHERE changed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final Duration writerTimeout;
+    private final Duration settle;
+
+    public CaseChangeFeed(JdbcTemplate jdbcTemplate,
+                          DataSource dataSource,
+                          @Value("${app.case-changes.writer-timeout-seconds:10}") int writerTimeoutSeconds,
+                          @Value("${app.case-changes.settle:30s}") Duration settle) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.writerTimeout = Duration.ofSeconds(writerTimeoutSeconds);
+        this.settle = settle;
+        if (settle.compareTo(writerTimeout.multipliedBy(2)) <= 0) {
+            throw new IllegalStateException("app.case-changes.settle (" + settle
+                    + ") must be longer than twice app.case-changes.writer-timeout-seconds (" + writerTimeoutSeconds + ")");
+        }
+    }
+
+    // Joins the caller's transaction: the change commits or rolls back with the case
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Long> caseIds, String changeType) {
+        if (caseIds.isEmpty()) {
+            return;
+        }
+        ResourceHolderSupport holder = (ResourceHolderSupport) TransactionSynchronizationManager.getResource(dataSource);
+        if (holder == null || !holder.hasTimeout() || holder.getTimeToLiveInMillis() > writerTimeout.toMillis()) {
+            throw new IllegalStateException("Case changes must be recorded in a transaction with a timeout of at most "
+                    + writerTimeout.toSeconds() + "s");
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, caseIds, caseIds.size(), (ps, caseId) -> {
+            ps.setLong(1, caseId);
+            ps.setString(2, changeType);
+        });
+
+        // Statements check the deadline, but a commit does not; a late writer must not commit behind a skipped gap
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                holder.getTimeToLiveInMillis();     // throws TransactionTimedOutException once past the deadline
+            }
+        });
+    }
+
+    private record Row(CaseChangePage.CaseChange change, LocalDateTime dbNow) {
+    }
+
+    public CaseChangePage changesSince(long since, int limit) {
+        List<Row> rows = jdbcTemplate.query(CHANGES_SQL, (rs, rowNum) -> {
+            Case c = new Case();
+            c.setId(rs.getLong("case_id"));
+            c.setTitle(rs.getString("title"));
+            c.setDescription(rs.getString("description"));
+            c.setCountry(rs.getString("country"));
+            c.setAmount(rs.getBigDecimal("amount"));
+            c.setReporterName(rs.getString("reporter_name"));
+            c.setCreatedDate(rs.getTimestamp("created_at").toLocalDateTime());
+            return new Row(new CaseChangePage.CaseChange(rs.getLong("id"), rs.getString("change_type"),
+                    rs.getTimestamp("changed_at").toLocalDateTime(), c), rs.getTimestamp("db_now").toLocalDateTime());
+        }, since, limit);
+
+        CaseChangePage page = new CaseChangePage();
+        long cursor = since;
+        for (Row row : rows) {
+            // Both times are from the database clock, so app servers' clocks do not matter
+            CaseChangePage.CaseChange change = row.change();
+            if (change.seq() != cursor + 1 && change.changedAt().isAfter(row.dbNow().minus(settle))) {
+                // Something between cursor and this change may still commit; wait for it
+                page.setHasMore(false);
+                page.setNextCursor(cursor);
+                return page;
+            }
+            page.getChanges().add(change);
+            cursor = change.seq();
+        }
+        page.setNextCursor(cursor);
+        page.setHasMore(rows.size() == limit);
+        return page;
+    }
+
+    // Newest change with nothing still in flight below it: a consumer that loads current state and then
+    // follows from here misses nothing, and sees the last settle window's changes twice
+    public long settledHead() {
+        LocalDateTime dbNow = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        Long head = jdbcTemplate.queryForObject(SETTLED_HEAD_SQL, Long.class, dbNow.minus(settle));
+        return head == null ? 0 : head;
+    }
+}
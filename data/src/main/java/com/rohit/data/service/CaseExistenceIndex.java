@@ -0,0 +1,181 @@
+package com.rohit.data.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Every case id, kept in a compressed (Roaring) bitmap so existence checks
+ * skip the database. Cases are never deleted, so a hit is always right.
+ * A miss may be a case another instance just created: those fall back to
+ * the database and are remembered when found. A periodic check compares the
+ * bitmap with the table and rebuilds it if they drifted apart.
+ */
+@Slf4j
+@Component
+public class CaseExistenceIndex {
+
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Roaring64NavigableMap ids = new Roaring64NavigableMap();
+    private volatile boolean loaded;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rebuilds;
+
+    public CaseExistenceIndex(JdbcTemplate jdbcTemplate,
+                              NamedParameterJdbcTemplate namedJdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.hits = meterRegistry.counter("data.case.index", "result", "hit");
+        this.misses = meterRegistry.counter("data.case.index", "result", "miss");
+        this.rebuilds = meterRegistry.counter("data.case.index.rebuilds");
+        Gauge.builder("data.case.index.size", this, CaseExistenceIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+        loaded = true;
+    }
+
+    public boolean exists(long caseId) {
+        return existsAll(List.of(caseId)).get(caseId);
+    }
+
+    // Answers from the bitmap; only ids it does not know are looked up, in one query
+    public Map<Long, Boolean> existsAll(Collection<Long> caseIds) {
+        Map<Long, Boolean> result = new LinkedHashMap<>();
+        List<Long> unknown = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long caseId : caseIds) {
+                if (loaded && ids.contains(caseId)) {
+                    result.put(caseId, true);
+                } else {
+                    result.put(caseId, false);
+                    unknown.add(caseId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.increment(caseIds.size() - unknown.size());
+        misses.increment(unknown.size());
+
+        if (!unknown.isEmpty()) {
+            List<Long> found = namedJdbcTemplate.queryForList("SELECT id FROM cases WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", unknown), Long.class);
+            found.forEach(caseId -> result.put(caseId, true));
+            addAll(found);
+        }
+        return result;
+    }
+
+    // Record new cases once the surrounding transaction commits (a rolled-back case must not appear)
+    public void addAfterCommit(Collection<Long> caseIds) {
+        if (caseIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addAll(caseIds);
+            return;
+        }
+        List<Long> pending = List.copyOf(caseIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addAll(pending);
+            }
+        });
+    }
+
+    public void addAll(Collection<Long> caseIds) {
+        lock.writeLock().lock();
+        try {
+            caseIds.forEach(ids::addLong);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return ids.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Drift check: a count mismatch means cases were added elsewhere (or missed here), so reload
+    @Scheduled(fixedDelayString = "${app.case-index.check-interval-ms:300000}",
+               initialDelayString = "${app.case-index.check-interval-ms:300000}")
+    public void checkConsistency() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM cases", Long.class);
+        long indexed = size();
+        if (count != null && count != indexed) {
+            log.info("Case index has {} ids but cases has {} rows; rebuilding", indexed, count);
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        Roaring64NavigableMap fresh = new Roaring64NavigableMap();
+        // Inside a transaction the Postgres driver honours the fetch size and streams the ids
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM cases");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            fresh.addLong(rs.getLong(1));
+        }));
+        fresh.runOptimize();
+
+        long loadedIds;
+        lock.writeLock().lock();
+        try {
+            // Keep ids added while the table was being read
+            fresh.or(ids);
+            ids = fresh;
+            loadedIds = ids.getLongCardinality();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuilds.increment();
+        log.info("Case index loaded {} ids in {} ms", loadedIds, (System.nanoTime() - started) / 1_000_000);
+    }
+}
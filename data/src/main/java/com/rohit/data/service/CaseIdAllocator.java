@@ -0,0 +1,53 @@
+package com.rohit.data.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out case ids from blocks reserved on cases_id_seq.
+ * Each nextval() advances the sequence by its increment, reserving
+ * [value, value + increment) for this instance; ids are then served from
+ * memory. Ids left in a block at shutdown are skipped.
+ *
+ * The increment is read with every nextval() rather than assumed, so the
+ * block never outgrows what the sequence actually reserved: before
+ * changelog 1.0.11 (or after its rollback) the increment is 1 and this
+ * takes one id per nextval(), exactly like instances that predate it.
+ * Those older instances use each nextval() value as a single id, which is
+ * the start of a block nobody else holds, so both can run side by side
+ * during a rolling deploy.
+ */
+@Component
+public class CaseIdAllocator {
+
+    private static final String NEXT_BLOCK_SQL = """
+            SELECT nextval('cases_id_seq') AS block_start,
+                   (SELECT CAST(increment AS BIGINT) FROM information_schema.sequences
+                    WHERE sequence_schema = current_schema() AND sequence_name = 'cases_id_seq') AS increment_by
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int blockSize;
+
+    private long next;
+    private long limit;     // exclusive; next == limit means the block is used up
+
+    public CaseIdAllocator(JdbcTemplate jdbcTemplate,
+                           @Value("${app.case-id.block-size:50}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long nextId() {
+        if (next == limit) {
+            jdbcTemplate.query(NEXT_BLOCK_SQL, rs -> {
+                long blockStart = rs.getLong("block_start");
+                long reserved = Math.max(1, rs.getLong("increment_by"));
+                next = blockStart;
+                limit = blockStart + Math.min(blockSize, reserved);
+            });
+        }
+        return next++;
+    }
+}
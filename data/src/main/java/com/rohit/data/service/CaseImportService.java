@@ -0,0 +1,303 @@
+package com.rohit.data.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.rohit.data.dto.CaseImportReport;
+import com.rohit.data.dto.CreateCaseRequest;
+import com.rohit.data.refdata.RefDataNearCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk case import from an NDJSON or CSV stream.
+ * Rows are parsed one at a time and written in chunks, each chunk one JDBC
+ * batch in its own transaction, so memory stays flat and a bad row only
+ * costs itself. Per-case emails are never sent; the caller may ask for one
+ * summary email instead.
+ */
+@Slf4j
+@Service
+public class CaseImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    public enum Notify { NONE, SUMMARY }
+
+    // Inserts nothing (update count 0) when the id exists; portable, unlike ON CONFLICT, to the H2 test DB
+    private static final String INSERT_SQL = """
+            INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at)
+            SELECT ?, ?, ?, ?, ?, ?, ?
+            WHERE NOT EXISTS (SELECT 1 FROM cases WHERE id = ?)
+            """;
+
+    private static final int MAX_COUNTRY_LENGTH = 10;
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CaseIdAllocator caseIdAllocator;
+    private final EmailService emailService;
+    private final CaseExistenceIndex caseExistenceIndex;
+    private final CaseChangeFeed caseChangeFeed;
+    private final RefDataNearCache refDataNearCache;
+    private final ObjectReader jsonReader;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final int maxReportedRejections;
+
+    public CaseImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             CaseIdAllocator caseIdAllocator,
+                             EmailService emailService,
+                             CaseExistenceIndex caseExistenceIndex,
+                             CaseChangeFeed caseChangeFeed,
+                             RefDataNearCache refDataNearCache,
+                             ObjectMapper objectMapper,
+                             @Value("${app.import.chunk-size:1000}") int defaultChunkSize,
+                             @Value("${app.import.max-chunk-size:10000}") int maxChunkSize,
+                             @Value("${app.import.max-reported-rejections:1000}") int maxReportedRejections,
+                             @Value("${app.case-changes.writer-timeout-seconds:10}") int writerTimeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Chunks record case changes, which must commit within the change feed's writer timeout
+        this.transactionTemplate.setTimeout(writerTimeoutSeconds);
+        this.caseIdAllocator = caseIdAllocator;
+        this.emailService = emailService;
+        this.caseExistenceIndex = caseExistenceIndex;
+        this.caseChangeFeed = caseChangeFeed;
+        this.refDataNearCache = refDataNearCache;
+        this.jsonReader = objectMapper.readerFor(CreateCaseRequest.class);
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    // One parsed input row, with the line it started on
+    private record Row(long line, CreateCaseRequest request) {
+    }
+
+    public CaseImportReport importCases(InputStream body, Format format, Integer chunkSize, Notify notify)
+            throws IOException {
+        int size = chunkSize == null ? defaultChunkSize : Math.max(1, Math.min(chunkSize, maxChunkSize));
+        CaseImportReport report = new CaseImportReport();
+        long started = System.nanoTime();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 65536);
+        List<Row> chunk = new ArrayList<>(size);
+        if (format == Format.CSV) {
+            readCsv(reader, report, chunk, size);
+        } else {
+            readNdjson(reader, report, chunk, size);
+        }
+        flush(chunk, report);
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Case import: {} received, {} imported, {} rejected in {} ms",
+                report.getReceived(), report.getImported(), report.getRejected(), report.getElapsedMillis());
+        if (notify == Notify.SUMMARY && report.getReceived() > 0) {
+            transactionTemplate.executeWithoutResult(status -> emailService.queueImportSummaryEmail(report));
+        }
+        return report;
+    }
+
+    private void readNdjson(BufferedReader reader, CaseImportReport report, List<Row> chunk, int size)
+            throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.setReceived(report.getReceived() + 1);
+            try {
+                accept(new Row(lineNumber, jsonReader.readValue(line)), report, chunk, size);
+            } catch (JsonProcessingException e) {
+                reject(report, lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, CaseImportReport report, List<Row> chunk, int size)
+            throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = nextRecord(csv, report, csv.line());
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+
+        while (true) {
+            long lineNumber = csv.line();
+            List<String> fields = nextRecord(csv, report, lineNumber);
+            if (fields == null) {
+                return;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            report.setReceived(report.getReceived() + 1);
+            try {
+                CreateCaseRequest request = new CreateCaseRequest();
+                String id = field(fields, columns, "id");
+                request.setId(id == null ? null : Long.valueOf(id));
+                request.setTitle(field(fields, columns, "title"));
+                request.setDescription(field(fields, columns, "description"));
+                request.setCountry(field(fields, columns, "country"));
+                String amount = field(fields, columns, "amount");
+                request.setAmount(amount == null ? null : new BigDecimal(amount));
+                request.setReporterName(field(fields, columns, "reportername"));
+                accept(new Row(lineNumber, request), report, chunk, size);
+            } catch (NumberFormatException e) {
+                reject(report, lineNumber, null, "Invalid number: " + e.getMessage());
+            }
+        }
+    }
+
+    // Next CSV record, or null at end of input; an open quote rejects everything from its record on
+    private List<String> nextRecord(CsvRecordReader csv, CaseImportReport report, long lineNumber)
+            throws IOException {
+        try {
+            return csv.next();
+        } catch (CsvRecordReader.UnterminatedQuoteException e) {
+            report.setReceived(report.getReceived() + 1);
+            reject(report, lineNumber, null, e.getMessage() + "; the rest of the input was not read");
+            return null;
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void accept(Row row, CaseImportReport report, List<Row> chunk, int size) {
+        String problem = validate(row.request());
+        if (problem != null) {
+            reject(report, row.line(), row.request().getId(), problem);
+            return;
+        }
+        chunk.add(row);
+        if (chunk.size() >= size) {
+            flush(chunk, report);
+        }
+    }
+
+    private String validate(CreateCaseRequest request) {
+        if (isBlank(request.getTitle()) || isBlank(request.getDescription()) || isBlank(request.getCountry())
+                || request.getAmount() == null || isBlank(request.getReporterName())) {
+            return "title, description, country, amount and reporterName are required";
+        }
+        if (request.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "title is longer than " + MAX_TITLE_LENGTH;
+        }
+        if (request.getCountry().length() > MAX_COUNTRY_LENGTH) {
+            return "country is longer than " + MAX_COUNTRY_LENGTH;
+        }
+        if (!refDataNearCache.acceptsCountry(request.getCountry())) {
+            return "unknown country code " + request.getCountry();
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    // Write one chunk as a JDBC batch in its own transaction; rows whose id exists are rejected
+    private void flush(List<Row> chunk, CaseImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Row row : chunk) {
+            if (row.request().getId() == null) {
+                row.request().setId(caseIdAllocator.nextId());
+            }
+        }
+
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> {
+                int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                    CreateCaseRequest request = row.request();
+                    ps.setLong(1, request.getId());
+                    ps.setString(2, request.getTitle());
+                    ps.setString(3, request.getDescription());
+                    ps.setString(4, request.getCountry());
+                    ps.setBigDecimal(5, request.getAmount());
+                    ps.setString(6, request.getReporterName());
+                    ps.setTimestamp(7, now);
+                    ps.setLong(8, request.getId());
+                })[0];
+                caseChangeFeed.record(insertedIds(chunk, inserted), CaseChangeFeed.CREATED);
+                return inserted;
+            });
+        } catch (RuntimeException e) {
+            // The chunk rolled back as a whole; report every row in it
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import chunk of {} rows failed: {}", chunk.size(), cause);
+            chunk.forEach(row -> reject(report, row.line(), row.request().getId(), "Chunk failed: " + cause));
+            report.setChunks(report.getChunks() + 1);
+            chunk.clear();
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] == 0) {
+                reject(report, chunk.get(i).line(), chunk.get(i).request().getId(), "Case id already exists");
+            }
+        }
+        List<Long> importedIds = insertedIds(chunk, counts);
+        report.setImported(report.getImported() + importedIds.size());
+        caseExistenceIndex.addAll(importedIds);
+        report.setChunks(report.getChunks() + 1);
+        chunk.clear();
+    }
+
+    private static List<Long> insertedIds(List<Row> chunk, int[] counts) {
+        List<Long> ids = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (counts[i] != 0) {
+                ids.add(chunk.get(i).request().getId());
+            }
+        }
+        return ids;
+    }
+
+    private void reject(CaseImportReport report, long line, Long id, String reason) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getRejectedRows().size() < maxReportedRejections) {
+            report.getRejectedRows().add(new CaseImportReport.RejectedRow(line, id, reason));
+        } else {
+            report.setRejectedRowsTruncated(true);
+        }
+    }
+}
@@ -1,41 +1,74 @@
 package com.rohit.data.service;
 
+import com.rohit.data.dto.CaseChangePage;
 import com.rohit.data.dto.CreateCaseRequest;
 import com.rohit.data.entity.Case;
+import com.rohit.data.refdata.RefDataNearCache;
 import com.rohit.data.repository.CaseRepository;
 import lombok.AllArgsConstructor;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
 public class CaseService {
 
     private final CaseRepository caseRepository;
-    private final JdbcTemplate jdbcTemplate;
+    private final CaseIdAllocator caseIdAllocator;
     private final EmailService emailService;
+    private final CaseExistenceIndex caseExistenceIndex;
+    private final CaseChangeFeed caseChangeFeed;
+    private final RefDataNearCache refDataNearCache;
 
+    // The case, its change feed entry and its notification email commit together; the email is sent in the background.
+    // The timeout bounds how long the change feed has to wait for this transaction's change.
+    @Transactional(timeoutString = "${app.case-changes.writer-timeout-seconds:10}")
     public Case createCase(CreateCaseRequest request) {
+        // Checked against the in-process copy of refdata-service's countries, no network hop
+        if (request.getCountry() != null && !refDataNearCache.acceptsCountry(request.getCountry())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown country code: " + request.getCountry());
+        }
 
         Case c = new Case();
-        c.setId(request.getId());
+        c.setId(request.getId() != null ? request.getId() : caseIdAllocator.nextId());
         c.setTitle(request.getTitle());
         c.setDescription(request.getDescription());
         c.setCountry(request.getCountry());
         c.setAmount(request.getAmount());
         c.setReporterName(request.getReporterName());
 
+        // New entity => plain INSERT; a reused id fails on the primary key instead of overwriting
         Case savedCase = caseRepository.save(c);
-        emailService.sendCaseCreatedEmail(savedCase);
+        caseChangeFeed.record(List.of(savedCase.getId()), CaseChangeFeed.CREATED);
+        emailService.queueCaseCreatedEmail(savedCase);
+        caseExistenceIndex.addAfterCommit(List.of(savedCase.getId()));
 
         return savedCase;
     }
 
     public Long getNextCaseId() {
-        return jdbcTemplate.queryForObject("SELECT nextval('cases_id_seq')", Long.class);
+        return caseIdAllocator.nextId();
     }
 
+    // Served from the in-memory index; the DB is only asked about ids the index does not know
     public boolean caseExists(Long caseId) {
-        return caseRepository.existsById(caseId);
+        return caseExistenceIndex.exists(caseId);
+    }
+
+    public Map<Long, Boolean> casesExist(List<Long> caseIds) {
+        return caseExistenceIndex.existsAll(caseIds);
+    }
+
+    public CaseChangePage getChanges(long since, int limit) {
+        return caseChangeFeed.changesSince(since, limit);
+    }
+
+    public long getSettledChangeHead() {
+        return caseChangeFeed.settledHead();
     }
 }
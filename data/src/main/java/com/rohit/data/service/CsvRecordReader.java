@@ -0,0 +1,95 @@
+package com.rohit.data.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: comma-separated, double-quoted fields may hold
+ * commas, quotes ("") and line breaks. Reads one record at a time.
+ */
+class CsvRecordReader {
+
+    // A quote left open runs to the end of input, so nothing after it can be read as records
+    static class UnterminatedQuoteException extends IOException {
+        UnterminatedQuoteException() {
+            super("Unterminated quoted field");
+        }
+    }
+
+    private final Reader reader;
+    private int pending = -2;       // one char of lookahead; -2 = none
+    private long line = 1;          // line the next record starts on
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    long line() {
+        return line;
+    }
+
+    // Next record's fields, or null at end of input
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new UnterminatedQuoteException();
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
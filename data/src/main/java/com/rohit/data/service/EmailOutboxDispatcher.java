@@ -0,0 +1,239 @@
+package com.rohit.data.service;
+
+import com.rohit.data.entity.EmailOutbox;
+import com.rohit.data.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sends emails queued in email_outbox.
+ * Each run claims a batch of due rows (skipping rows another instance holds),
+ * then sends them outside any transaction on virtual threads, several
+ * messages per SMTP connection. Failures are retried with exponential
+ * backoff; after max-attempts a row is marked FAILED rather than dropped.
+ * A row whose outcome is unknown (its group never reported back) is left
+ * claimed and becomes due again after claim-timeout, so it is resent
+ * rather than wrongly marked SENT.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.email.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.email.outbox.messages-per-connection:10}") int messagesPerConnection,
+                                 @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+                                 @Value("${app.email.outbox.initial-backoff:30s}") Duration initialBackoff,
+                                 @Value("${app.email.outbox.max-backoff:1h}") Duration maxBackoff,
+                                 @Value("${app.email.outbox.claim-timeout:5m}") Duration claimTimeout) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+
+        this.sent = meterRegistry.counter("data.email.outbox", "result", "sent");
+        this.retried = meterRegistry.counter("data.email.outbox", "result", "retried");
+        this.failed = meterRegistry.counter("data.email.outbox", "result", "failed");
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.interval-ms:2000}",
+               initialDelayString = "${app.email.outbox.initial-delay-ms:5000}")
+    public void dispatch() {
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                Map<Long, Exception> results = send(batch);
+                List<EmailOutbox> claimed = batch;
+                transactionTemplate.executeWithoutResult(status -> recordResults(claimed, results));
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    // Lock due rows and push their next attempt past the claim timeout, so nobody else picks them
+    // up while we send; if this instance dies mid-send they become due again afterwards
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = emailOutboxRepository.lockDue(now, PageRequest.of(0, batchSize));
+            due.forEach(email -> email.setNextAttemptAt(now.plus(claimTimeout)));
+            return emailOutboxRepository.saveAll(due);
+        });
+    }
+
+    // Send in groups on virtual threads; one SMTP connection per group. Returns the outcome by row id:
+    // null if sent, the error if not. Rows of a group that never reported back have no entry.
+    private Map<Long, Exception> send(List<EmailOutbox> batch) {
+        Map<Long, Exception> results = new HashMap<>();
+        List<Future<Map<Long, Exception>>> groups = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < batch.size(); from += messagesPerConnection) {
+                List<EmailOutbox> group = batch.subList(from, Math.min(batch.size(), from + messagesPerConnection));
+                groups.add(executor.submit(() -> sendGroup(group)));
+            }
+            for (Future<Map<Long, Exception>> group : groups) {
+                try {
+                    results.putAll(group.get());
+                } catch (ExecutionException e) {
+                    // sendGroup catches mail errors itself; anything else leaves the group's rows to time out
+                    log.error("Email dispatch failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    private Map<Long, Exception> sendGroup(List<EmailOutbox> group) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            messages[i] = toMessage(group.get(i));
+        }
+
+        Map<Long, Exception> results = new HashMap<>();
+        group.forEach(email -> results.put(email.getId(), null));
+        try {
+            // JavaMailSender sends a whole array over a single connection
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Long, Exception> failures = new HashMap<>();
+            e.getFailedMessages().forEach((message, error) -> {
+                if (message instanceof OutboxMessage outboxMessage) {
+                    failures.put(outboxMessage.outboxId, error);
+                }
+            });
+            if (failures.isEmpty()) {
+                // No per-message detail we can match: nothing is known to have been sent
+                group.forEach(email -> failures.put(email.getId(), e));
+            }
+            results.putAll(failures);
+        } catch (MailException e) {
+            group.forEach(email -> results.put(email.getId(), e));
+        }
+        return results;
+    }
+
+    private void recordResults(List<EmailOutbox> batch, Map<Long, Exception> results) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> recorded = new ArrayList<>(batch.size());
+        for (EmailOutbox email : batch) {
+            if (!results.containsKey(email.getId())) {
+                // Outcome unknown: stays claimed and is retried once the claim times out
+                continue;
+            }
+            recorded.add(email);
+            Exception error = results.get(email.getId());
+            email.setAttempts(email.getAttempts() + 1);
+            if (error == null) {
+                email.setStatus(EmailOutbox.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sent.increment();
+                continue;
+            }
+
+            email.setLastError(truncate(String.valueOf(error.getMessage())));
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailOutbox.FAILED);
+                failed.increment();
+                log.error("Giving up on email {} for case {} after {} attempts: {}",
+                        email.getId(), email.getCaseId(), email.getAttempts(), error.getMessage());
+            } else {
+                email.setNextAttemptAt(now.plus(backoff(email.getAttempts())));
+                retried.increment();
+                log.warn("Email {} for case {} failed (attempt {}), retrying: {}",
+                        email.getId(), email.getCaseId(), email.getAttempts(), error.getMessage());
+            }
+        }
+        emailOutboxRepository.saveAll(recorded);
+    }
+
+    // initial * 2^(attempts-1), capped at max-backoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static SimpleMailMessage toMessage(EmailOutbox email) {
+        SimpleMailMessage message = new OutboxMessage(email.getId());
+        message.setFrom(email.getSender());
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    // MailSendException keys failures by message in a map. SimpleMailMessage equality is by content,
+    // so two identical emails to the same recipient would collapse into one key; these never do.
+    private static final class OutboxMessage extends SimpleMailMessage {
+
+        private final Long outboxId;
+
+        OutboxMessage(Long outboxId) {
+            this.outboxId = outboxId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
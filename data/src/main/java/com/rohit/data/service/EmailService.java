@@ -1,7 +1,12 @@
 package com.rohit.data.service;
 
+import com.rohit.data.dto.CaseImportReport;
 import com.rohit.data.entity.Case;
 
 public interface EmailService {
-    void sendCaseCreatedEmail(Case caseEntity);
+    // Queue the notification in the caller's transaction; EmailOutboxDispatcher sends it
+    void queueCaseCreatedEmail(Case caseEntity);
+
+    // One email for a whole bulk import instead of one per case
+    void queueImportSummaryEmail(CaseImportReport report);
 }
@@ -1,18 +1,19 @@
 package com.rohit.data.service.impl;
 
+import com.rohit.data.dto.CaseImportReport;
 import com.rohit.data.entity.Case;
+import com.rohit.data.entity.EmailOutbox;
+import com.rohit.data.repository.EmailOutboxRepository;
 import com.rohit.data.service.EmailService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
 
     @Value("${spring.mail.username:noreply@example.com}")
     private String fromEmail;
@@ -21,37 +22,55 @@ public class EmailServiceImpl implements EmailService {
     private String toEmail;
 
     @Override
-    public void sendCaseCreatedEmail(Case caseEntity) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject("New case created: " + caseEntity.getId() + " - " + caseEntity.getTitle());
-
-            String body = String.format("""
-                    A new case has been created.
-
-                    ID: %d
-                    Title: %s
-                    Country: %s
-                    Amount: %.2f
-                    Reporter: %s
-                    """,
-                    caseEntity.getId(),
-                    caseEntity.getTitle(),
-                    caseEntity.getCountry(),
-                    caseEntity.getAmount(),
-                    caseEntity.getReporterName());
-
-            message.setText(body);
-
-            mailSender.send(message);
-            System.out.println("Email sent successfully for case ID: " + caseEntity.getId());
-        } catch (Exception e) {
-            System.err
-                    .println("Failed to send email for case ID: " + caseEntity.getId() + ". Error: " + e.getMessage());
-            // We don't rethrow to avoid rolling back the transaction just because email
-            // failed
-        }
+    public void queueCaseCreatedEmail(Case caseEntity) {
+        EmailOutbox email = new EmailOutbox();
+        email.setCaseId(caseEntity.getId());
+        email.setSender(fromEmail);
+        email.setRecipient(toEmail);
+        email.setSubject("New case created: " + caseEntity.getId() + " - " + caseEntity.getTitle());
+
+        String body = String.format("""
+                A new case has been created.
+
+                ID: %d
+                Title: %s
+                Country: %s
+                Amount: %.2f
+                Reporter: %s
+                """,
+                caseEntity.getId(),
+                caseEntity.getTitle(),
+                caseEntity.getCountry(),
+                caseEntity.getAmount(),
+                caseEntity.getReporterName());
+
+        email.setBody(body);
+
+        // Same transaction as the case: either both are stored or neither is
+        emailOutboxRepository.save(email);
+    }
+
+    @Override
+    public void queueImportSummaryEmail(CaseImportReport report) {
+        EmailOutbox email = new EmailOutbox();
+        email.setSender(fromEmail);
+        email.setRecipient(toEmail);
+        email.setSubject("Case import finished: " + report.getImported() + " cases created");
+
+        String body = String.format("""
+                A bulk case import has finished.
+
+                Rows received: %d
+                Cases created: %d
+                Rows rejected: %d
+                Duration: %d ms
+                """,
+                report.getReceived(),
+                report.getImported(),
+                report.getRejected(),
+                report.getElapsedMillis());
+
+        email.setBody(body);
+        emailOutboxRepository.save(email);
     }
 }
@@ -0,0 +1,62 @@
+package com.rohit.data.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.StringJoiner;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.email.outbox.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CaseControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void existsAnswersEveryId() throws Exception {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                + "VALUES (810001, 'Exists', 'Exists', 'IN', 1, 'Jo', LOCALTIMESTAMP)");
+
+        mockMvc.perform(post("/data/exists").contentType(MediaType.APPLICATION_JSON).content("[810001, 810002]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['810001']").value(true))
+                .andExpect(jsonPath("$['810002']").value(false));
+    }
+
+    @Test
+    void existsRejectsMoreThanAThousandIds() throws Exception {
+        StringJoiner ids = new StringJoiner(",", "[", "]");
+        for (int i = 1; i <= 1001; i++) {
+            ids.add(Integer.toString(i));
+        }
+
+        mockMvc.perform(post("/data/exists").contentType(MediaType.APPLICATION_JSON).content(ids.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void existsRejectsANullId() throws Exception {
+        mockMvc.perform(post("/data/exists").contentType(MediaType.APPLICATION_JSON).content("[1, null]"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,80 @@
+package com.rohit.data.refdata;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RefDataClientTests {
+
+    private HttpServer server;
+    private final AtomicReference<String> lastIfNoneMatch = new AtomicReference<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/refdata/countries", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            lastIfNoneMatch.set(ifNoneMatch);
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            if ("\"v1\"".equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "[{\"code\":\"IN\",\"name\":\"India\"}]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchReturnsEntriesAndEtag() {
+        RefDataClient.Fetched fetched = client("http://localhost:" + server.getAddress().getPort()).fetch("countries", null);
+
+        assertThat(lastIfNoneMatch.get()).isNull();
+        assertThat(fetched.etag()).isEqualTo("\"v1\"");
+        assertThat(fetched.entries()).containsExactly(new RefDataClient.Entry("IN", "India"));
+    }
+
+    @Test
+    void matchingEtagMeansNotModified() {
+        RefDataClient.Fetched fetched = client("http://localhost:" + server.getAddress().getPort()).fetch("countries", "\"v1\"");
+
+        assertThat(lastIfNoneMatch.get()).isEqualTo("\"v1\"");
+        assertThat(fetched).isNull();
+    }
+
+    @Test
+    void unreachableServiceFailsFast() {
+        long started = System.nanoTime();
+
+        assertThatThrownBy(() -> client("http://localhost:1").fetch("countries", null))
+                .isInstanceOf(RestClientException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    private static RefDataClient client(String baseUrl) {
+        return new RefDataClient(baseUrl, Duration.ofMillis(500), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,103 @@
+package com.rohit.data.refdata;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefDataNearCacheTests {
+
+    private static final RefDataClient.Fetched V1 = new RefDataClient.Fetched("\"v1\"",
+            List.of(new RefDataClient.Entry("IN", "India"), new RefDataClient.Entry("US", "United States")));
+
+    private final RefDataClient client = mock(RefDataClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void everyCountryIsAcceptedUntilTheFirstLoad() {
+        RefDataNearCache cache = cache(true);
+
+        assertThat(cache.acceptsCountry("XX")).isTrue();
+        assertThat(cache.get(RefDataNearCache.COUNTRIES)).isNull();
+        assertThat(meterRegistry.counter("refdata.validation.unchecked").count()).isEqualTo(1);
+    }
+
+    @Test
+    void loadedCountriesAreEnforced() {
+        when(client.fetch(RefDataNearCache.COUNTRIES, null)).thenReturn(V1);
+        RefDataNearCache cache = cache(true);
+
+        cache.refresh();
+
+        assertThat(cache.acceptsCountry("IN")).isTrue();
+        assertThat(cache.acceptsCountry("XX")).isFalse();
+        assertThat(cache.get(RefDataNearCache.COUNTRIES).etag()).isEqualTo("\"v1\"");
+        assertThat(cache.get(RefDataNearCache.COUNTRIES).names()).containsEntry("US", "United States");
+    }
+
+    @Test
+    void notModifiedKeepsTheSnapshotAndRevalidatesWithItsEtag() throws InterruptedException {
+        when(client.fetch(RefDataNearCache.COUNTRIES, null)).thenReturn(V1);
+        when(client.fetch(RefDataNearCache.COUNTRIES, "\"v1\"")).thenReturn(null);
+        RefDataNearCache cache = cache(true);
+        cache.refresh();
+        RefDataNearCache.Snapshot first = cache.get(RefDataNearCache.COUNTRIES);
+        Thread.sleep(5);
+
+        cache.refresh();
+
+        RefDataNearCache.Snapshot second = cache.get(RefDataNearCache.COUNTRIES);
+        verify(client).fetch(RefDataNearCache.COUNTRIES, "\"v1\"");
+        assertThat(second.names()).isSameAs(first.names());
+        assertThat(second.checkedAtMillis()).isGreaterThan(first.checkedAtMillis());
+        assertThat(meterRegistry.counter("refdata.near-cache.refresh", "result", "not_modified").count()).isEqualTo(1);
+    }
+
+    @Test
+    void outageKeepsTheLastGoodSnapshot() {
+        when(client.fetch(RefDataNearCache.COUNTRIES, null)).thenReturn(V1);
+        when(client.fetch(eq(RefDataNearCache.COUNTRIES), eq("\"v1\"")))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+        RefDataNearCache cache = cache(true);
+        cache.refresh();
+
+        cache.refresh();
+        cache.refresh();
+
+        assertThat(cache.acceptsCountry("IN")).isTrue();
+        assertThat(cache.acceptsCountry("XX")).isFalse();
+        assertThat(meterRegistry.counter("refdata.near-cache.refresh", "result", "failed").count()).isEqualTo(2);
+    }
+
+    @Test
+    void outageBeforeTheFirstLoadStillLetsCasesThrough() {
+        when(client.fetch(any(), isNull())).thenThrow(new ResourceAccessException("Connection refused"));
+        RefDataNearCache cache = cache(true);
+
+        cache.refresh();
+
+        assertThat(cache.acceptsCountry("XX")).isTrue();
+    }
+
+    @Test
+    void validationCanBeSwitchedOff() {
+        when(client.fetch(RefDataNearCache.COUNTRIES, null)).thenReturn(V1);
+        RefDataNearCache cache = cache(false);
+        cache.refresh();
+
+        assertThat(cache.acceptsCountry("XX")).isTrue();
+    }
+
+    private RefDataNearCache cache(boolean validateCountries) {
+        return new RefDataNearCache(client, meterRegistry, List.of(RefDataNearCache.COUNTRIES), validateCountries);
+    }
+}
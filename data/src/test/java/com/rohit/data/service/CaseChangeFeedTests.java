@@ -0,0 +1,164 @@
+package com.rohit.data.service;
+
+import com.rohit.data.dto.CaseChangePage;
+import com.rohit.data.dto.CreateCaseRequest;
+import com.rohit.data.entity.Case;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.enabled=false",
+        "app.case-changes.writer-timeout-seconds=1",
+        "app.case-changes.settle=3s"
+})
+@ActiveProfiles("test")
+class CaseChangeFeedTests {
+
+    private static final long CASE_ID = 900_001L;
+
+    @Autowired
+    private CaseChangeFeed caseChangeFeed;
+
+    @Autowired
+    private CaseService caseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM email_outbox");
+        jdbcTemplate.update("DELETE FROM case_change");
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void youngGapHoldsTheCursorUntilItFills() {
+        insertCase();
+        insertChange(1, "LOCALTIMESTAMP");
+        insertChange(3, "LOCALTIMESTAMP");
+
+        CaseChangePage page = caseChangeFeed.changesSince(0, 100);
+        assertThat(page.getChanges()).extracting(CaseChangePage.CaseChange::seq).containsExactly(1L);
+        assertThat(page.getNextCursor()).isEqualTo(1);
+        assertThat(page.isHasMore()).isFalse();
+
+        // The writer holding 2 commits late; nothing past the gap was handed out, so it is not lost
+        insertChange(2, "LOCALTIMESTAMP");
+        page = caseChangeFeed.changesSince(1, 100);
+        assertThat(page.getChanges()).extracting(CaseChangePage.CaseChange::seq).containsExactly(2L, 3L);
+        assertThat(page.getNextCursor()).isEqualTo(3);
+    }
+
+    @Test
+    void gapOlderThanSettleIsSkipped() {
+        insertCase();
+        insertChange(1, "LOCALTIMESTAMP - INTERVAL '1' MINUTE");
+        insertChange(3, "LOCALTIMESTAMP - INTERVAL '1' MINUTE");
+        insertChange(5, "LOCALTIMESTAMP");
+
+        CaseChangePage page = caseChangeFeed.changesSince(0, 100);
+        assertThat(page.getChanges()).extracting(CaseChangePage.CaseChange::seq).containsExactly(1L, 3L);
+        assertThat(page.getNextCursor()).isEqualTo(3);
+    }
+
+    @Test
+    void settledHeadStopsShortOfChangesThatMayHaveGapsBelowThem() {
+        insertCase();
+        insertChange(1, "LOCALTIMESTAMP - INTERVAL '1' MINUTE");
+        insertChange(2, "LOCALTIMESTAMP - INTERVAL '1' MINUTE");
+        insertChange(4, "LOCALTIMESTAMP");
+
+        assertThat(caseChangeFeed.settledHead()).isEqualTo(2);
+    }
+
+    @Test
+    void createdCaseIsRecordedWithDatabaseTime() {
+        CreateCaseRequest request = new CreateCaseRequest();
+        request.setTitle("Feed");
+        request.setDescription("Feed");
+        request.setReporterName("Jo");
+        request.setCountry("IN");
+        request.setAmount(BigDecimal.ONE);
+        Case created = caseService.createCase(request);
+
+        CaseChangePage page = caseChangeFeed.changesSince(0, 100);
+        assertThat(page.getChanges()).singleElement().satisfies(change -> {
+            assertThat(change.caseData().getId()).isEqualTo(created.getId());
+            assertThat(change.type()).isEqualTo(CaseChangeFeed.CREATED);
+        });
+        Boolean dbTime = jdbcTemplate.queryForObject(
+                "SELECT changed_at <= LOCALTIMESTAMP AND changed_at > LOCALTIMESTAMP - INTERVAL '1' MINUTE FROM case_change",
+                Boolean.class);
+        assertThat(dbTime).isTrue();
+    }
+
+    @Test
+    void recordRefusesTransactionsWithoutABoundedTimeout() {
+        insertCase();
+        TransactionTemplate unbounded = new TransactionTemplate(transactionManager);
+        TransactionTemplate tooLong = new TransactionTemplate(transactionManager);
+        tooLong.setTimeout(60);
+
+        assertThatThrownBy(() -> unbounded.executeWithoutResult(
+                status -> caseChangeFeed.record(List.of(CASE_ID), CaseChangeFeed.CREATED)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> tooLong.executeWithoutResult(
+                status -> caseChangeFeed.record(List.of(CASE_ID), CaseChangeFeed.CREATED)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(changeCount()).isZero();
+    }
+
+    @Test
+    void writerThatOutlivesItsTimeoutIsRolledBackAtCommit() {
+        insertCase();
+        TransactionTemplate writer = new TransactionTemplate(transactionManager);
+        writer.setTimeout(1);
+
+        assertThatThrownBy(() -> writer.executeWithoutResult(status -> {
+            caseChangeFeed.record(List.of(CASE_ID), CaseChangeFeed.CREATED);
+            sleep(1200);
+        })).isInstanceOf(TransactionTimedOutException.class);
+        assertThat(changeCount()).isZero();
+    }
+
+    private void insertCase() {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                + "VALUES (?, 'Gap', 'Gap', 'IN', 1, 'Jo', LOCALTIMESTAMP)", CASE_ID);
+    }
+
+    private void insertChange(long seq, String changedAt) {
+        jdbcTemplate.update("INSERT INTO case_change (id, case_id, change_type, changed_at) VALUES (?, ?, 'CREATED', "
+                + changedAt + ")", seq, CASE_ID);
+    }
+
+    private int changeCount() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM case_change", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.rohit.data.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.email.outbox.enabled=false")
+@ActiveProfiles("test")
+class CaseExistenceIndexTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // A private index, so the context's shared one and its scheduled check stay out of the counts
+    private CaseExistenceIndex index;
+
+    @BeforeEach
+    void loadIndex() {
+        insertCase(800001);
+        index = new CaseExistenceIndex(jdbcTemplate, namedJdbcTemplate, transactionManager, meterRegistry);
+        index.load();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void knownIdIsAnsweredWithoutTheDatabase() {
+        // Cases are never deleted, so a row gone behind the index's back proves the bitmap answered
+        jdbcTemplate.update("DELETE FROM cases WHERE id = 800001");
+
+        assertThat(index.exists(800001)).isTrue();
+        assertThat(counter("hit")).isEqualTo(1);
+        assertThat(counter("miss")).isZero();
+    }
+
+    @Test
+    void missFallsBackToTheDatabaseAndIsRemembered() {
+        insertCase(800002);
+
+        assertThat(index.existsAll(List.of(800001L, 800002L, 800003L)))
+                .containsEntry(800001L, true)
+                .containsEntry(800002L, true)
+                .containsEntry(800003L, false);
+        assertThat(counter("miss")).isEqualTo(2);
+
+        jdbcTemplate.update("DELETE FROM cases WHERE id = 800002");
+        assertThat(index.exists(800002)).isTrue();
+        assertThat(counter("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void addAfterCommitSkipsRolledBackCases() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            insertCase(800004);
+            index.addAfterCommit(List.of(800004L));
+            status.setRollbackOnly();
+        });
+        transaction.executeWithoutResult(status -> {
+            insertCase(800005);
+            index.addAfterCommit(List.of(800005L));
+        });
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.exists(800004)).isFalse();
+        assertThat(counter("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void checkConsistencyRebuildsAfterDrift() {
+        index.checkConsistency();
+        assertThat(meterRegistry.counter("data.case.index.rebuilds").count()).isEqualTo(1);
+
+        // Created by another instance: this index never heard of them
+        insertCase(800006);
+        insertCase(800007);
+        index.checkConsistency();
+
+        assertThat(meterRegistry.counter("data.case.index.rebuilds").count()).isEqualTo(2);
+        assertThat(index.size()).isEqualTo(3);
+        index.existsAll(List.of(800006L, 800007L));
+        assertThat(counter("miss")).isZero();
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("data.case.index", "result", result).count();
+    }
+
+    private void insertCase(long id) {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                + "VALUES (?, 'Index', 'Index', 'IN', 1, 'Jo', LOCALTIMESTAMP)", id);
+    }
+}
@@ -0,0 +1,137 @@
+package com.rohit.data.service;
+
+import com.rohit.data.dto.CreateCaseRequest;
+import com.rohit.data.entity.Case;
+import com.rohit.data.repository.CaseRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class CaseIdAllocatorTests {
+
+    @Autowired
+    private CaseService caseService;
+
+    @Autowired
+    private CaseRepository caseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void restoreSequence() {
+        jdbcTemplate.execute("ALTER SEQUENCE cases_id_seq INCREMENT BY 50");
+        jdbcTemplate.update("DELETE FROM email_outbox");
+        jdbcTemplate.update("DELETE FROM case_change");
+        caseRepository.deleteAll();
+    }
+
+    @Test
+    void idsComeFromBlocksOfFiftyWithOneNextvalPerBlock() {
+        // Fresh allocator, so its first id starts a new block
+        CaseIdAllocator allocator = new CaseIdAllocator(jdbcTemplate, 50);
+        long before = currentSequenceValue();
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            ids.add(allocator.nextId());
+        }
+
+        assertThat(ids).hasSize(120);
+        // 120 ids = three blocks
+        assertThat(currentSequenceValue() - before).isEqualTo(150);
+    }
+
+    @Test
+    void olderInstancesTakingSingleValuesNeverCollide() {
+        CaseIdAllocator allocator = new CaseIdAllocator(jdbcTemplate, 50);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            assertThat(ids.add(allocator.nextId())).isTrue();
+            if (i % 7 == 0) {
+                // What pre-1.0.11 code does for /data/cases/next-id
+                assertThat(ids.add(oldStyleNextId())).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void beforeTheMigrationBlocksShrinkToOneId() {
+        // The sequence as it was before 1.0.11, or after its rollback
+        jdbcTemplate.execute("ALTER SEQUENCE cases_id_seq INCREMENT BY 1");
+        CaseIdAllocator allocator = new CaseIdAllocator(jdbcTemplate, 50);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertThat(ids.add(allocator.nextId())).isTrue();
+            assertThat(ids.add(oldStyleNextId())).isTrue();
+        }
+    }
+
+    @Test
+    void createCaseInsertsWithoutLoadingAnything() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        caseService.createCase(request(null));
+        statistics.clear();
+
+        Case created = caseService.createCase(request(null));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        // The case INSERT and the outbox INSERT; no SELECT before the INSERT
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+    }
+
+    @Test
+    void reusedIdFailsInsteadOfOverwriting() {
+        Case first = caseService.createCase(request(null));
+
+        assertThatThrownBy(() -> caseService.createCase(request(first.getId())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(caseRepository.findById(first.getId())).get()
+                .extracting(Case::getTitle).isEqualTo("Broken window");
+    }
+
+    private long currentSequenceValue() {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM information_schema.sequences WHERE sequence_name = 'cases_id_seq'", Long.class);
+    }
+
+    private long oldStyleNextId() {
+        return jdbcTemplate.queryForObject("SELECT nextval('cases_id_seq')", Long.class);
+    }
+
+    private static CreateCaseRequest request(Long id) {
+        CreateCaseRequest request = new CreateCaseRequest();
+        request.setId(id);
+        request.setTitle(id == null ? "Broken window" : "Overwrite attempt");
+        request.setDescription("Window on the ground floor");
+        request.setCountry("IN");
+        request.setAmount(new BigDecimal("120.50"));
+        request.setReporterName("Jo");
+        return request;
+    }
+}
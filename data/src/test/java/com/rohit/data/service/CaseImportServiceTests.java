@@ -0,0 +1,191 @@
+package com.rohit.data.service;
+
+import com.rohit.data.dto.CaseImportReport;
+import com.rohit.data.refdata.RefDataClient;
+import com.rohit.data.refdata.RefDataNearCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "app.email.outbox.enabled=false")
+@ActiveProfiles("test")
+class CaseImportServiceTests {
+
+    @Autowired
+    private CaseImportService caseImportService;
+
+    @Autowired
+    private RefDataNearCache refDataNearCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private RefDataClient refDataClient;
+
+    // Countries loaded, so unknown codes are enforced
+    @BeforeEach
+    void loadCountries() {
+        when(refDataClient.fetch(RefDataNearCache.COUNTRIES, null)).thenReturn(new RefDataClient.Fetched("\"v1\"",
+                List.of(new RefDataClient.Entry("IN", "India"), new RefDataClient.Entry("US", "United States"))));
+        refDataNearCache.refresh();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM email_outbox");
+        jdbcTemplate.update("DELETE FROM case_change");
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void csvFieldsMayHoldQuotesCommasAndLineBreaks() throws IOException {
+        String csv = "id,title,description,country,amount,reporter_name\r\n"
+                + "700001,\"Fraud, card\",\"He said \"\"stop\"\"\r\nthen left\",IN,12.50,Jo\r\n"
+                + "700002,Plain,Plain,US,3,Al\r\n";
+
+        CaseImportReport report = importCsv(csv, null);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isZero();
+        Map<String, Object> first = jdbcTemplate.queryForMap(
+                "SELECT title, description, amount, reporter_name FROM cases WHERE id = 700001");
+        assertThat(first).containsEntry("title", "Fraud, card")
+                .containsEntry("description", "He said \"stop\"\r\nthen left")
+                .containsEntry("reporter_name", "Jo");
+        assertThat((BigDecimal) first.get("amount")).isEqualByComparingTo("12.50");
+    }
+
+    @Test
+    void csvHeaderIsMatchedWhateverItsCaseOrUnderscores() throws IOException {
+        String csv = " Reporter_Name ,AMOUNT,Country,Description,Title,Id\n"
+                + "Jo,5,IN,Moved columns,Aliases,700010\n";
+
+        CaseImportReport report = importCsv(csv, null);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT reporter_name FROM cases WHERE id = 700010", String.class))
+                .isEqualTo("Jo");
+    }
+
+    @Test
+    void badRowsAreReportedWithTheirLines() throws IOException {
+        insertCase(700020);
+        String csv = "id,title,description,country,amount,reporter_name\n"
+                + "700020,Taken,Taken,IN,1,Jo\n"
+                + "700021,\"Two\nlines\",Bad amount,IN,lots,Jo\n"
+                + "700022,Where,Where,XX,1,Jo\n"
+                + "700023,Fine,Fine,IN,1,Jo\n";
+
+        CaseImportReport report = importCsv(csv, null);
+
+        assertThat(report.getReceived()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejectedRows()).extracting(CaseImportReport.RejectedRow::line)
+                .containsExactlyInAnyOrder(2L, 3L, 5L);
+        assertThat(reason(report, 2)).isEqualTo("Case id already exists");
+        assertThat(reason(report, 3)).startsWith("Invalid number");
+        assertThat(reason(report, 5)).isEqualTo("unknown country code XX");
+    }
+
+    @Test
+    void unterminatedQuoteRejectsTheRestButKeepsTheReport() throws IOException {
+        String csv = "id,title,description,country,amount,reporter_name\n"
+                + "700030,Before,Before,IN,1,Jo\n"
+                + "700031,\"Open,Never closed,IN,1,Jo\n"
+                + "700032,After,After,IN,1,Jo\n";
+
+        CaseImportReport report = importCsv(csv, 1);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getRejectedRows()).singleElement().satisfies(row -> {
+            assertThat(row.line()).isEqualTo(3);
+            assertThat(row.reason()).startsWith("Unterminated quoted field");
+        });
+        assertThat(caseIds()).containsExactly(700030L);
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndBadJsonIsRejected() throws IOException {
+        String ndjson = """
+                {"id":700040,"title":"Json","description":"Json","country":"US","amount":7,"reporterName":"Al"}
+
+                {"id":700041,"title":
+                {"title":"No id","description":"Allocated","country":"IN","amount":1,"reporterName":"Jo"}
+                """;
+
+        CaseImportReport report = caseImportService.importCases(stream(ndjson), CaseImportService.Format.NDJSON,
+                null, CaseImportService.Notify.NONE);
+
+        assertThat(report.getReceived()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejectedRows()).singleElement().satisfies(row -> {
+            assertThat(row.line()).isEqualTo(3);
+            assertThat(row.reason()).startsWith("Invalid JSON");
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM cases WHERE title = 'No id'", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void eachChunkCommitsOnItsOwn() throws IOException {
+        String tooLong = "x".repeat(300);
+        String csv = "id,title,description,country,amount,reporter_name\n"
+                + "700050,A,A,IN,1,Jo\n"
+                + "700051,B,B,IN,1,Jo\n"
+                + "700052,C,C,IN,1," + tooLong + "\n"
+                + "700053,D,D,IN,1,Jo\n"
+                + "700054,E,E,IN,1,Jo\n";
+
+        CaseImportReport report = importCsv(csv, 2);
+
+        // The second chunk fails in the database and rolls back as a whole; the others stay
+        assertThat(report.getChunks()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejectedRows()).extracting(CaseImportReport.RejectedRow::id)
+                .containsExactlyInAnyOrder(700052L, 700053L);
+        assertThat(caseIds()).containsExactly(700050L, 700051L, 700054L);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM case_change", Integer.class)).isEqualTo(3);
+    }
+
+    private CaseImportReport importCsv(String csv, Integer chunkSize) throws IOException {
+        return caseImportService.importCases(stream(csv), CaseImportService.Format.CSV, chunkSize,
+                CaseImportService.Notify.NONE);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String reason(CaseImportReport report, long line) {
+        return report.getRejectedRows().stream()
+                .filter(row -> row.line() == line)
+                .findFirst()
+                .orElseThrow()
+                .reason();
+    }
+
+    private void insertCase(long id) {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                + "VALUES (?, 'Old', 'Old', 'IN', 1, 'Jo', LOCALTIMESTAMP)", id);
+    }
+
+    private List<Long> caseIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM cases ORDER BY id", Long.class);
+    }
+}
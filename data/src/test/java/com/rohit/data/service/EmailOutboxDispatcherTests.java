@@ -0,0 +1,187 @@
+package com.rohit.data.service;
+
+import com.rohit.data.entity.EmailOutbox;
+import com.rohit.data.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+// The scheduled dispatcher is off; each test drives its own with a mocked mail sender
+@SpringBootTest(properties = "app.email.outbox.enabled=false")
+@ActiveProfiles("test")
+class EmailOutboxDispatcherTests {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JavaMailSender mailSender;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void createDispatcher() {
+        mailSender = mock(JavaMailSender.class);
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, mailSender, transactionManager,
+                new SimpleMeterRegistry(), 50, 2, MAX_ATTEMPTS,
+                Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void sentEmailsAreMarkedSent() {
+        List<EmailOutbox> emails = queue("a@example.com", "b@example.com", "c@example.com");
+
+        dispatcher.dispatch();
+
+        for (EmailOutbox email : reload(emails)) {
+            assertThat(email.getStatus()).isEqualTo(EmailOutbox.SENT);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getSentAt()).isNotNull();
+        }
+    }
+
+    @Test
+    void onlyTheRejectedOfTwoIdenticalEmailsIsRetried() {
+        List<EmailOutbox> emails = queue("same@example.com", "same@example.com");
+        doAnswer(invocation -> {
+            SimpleMailMessage[] messages = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            assertThat(messages[0]).isNotSameAs(messages[1]);
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            failed.put(messages[1], new MessagingException("mailbox busy"));
+            throw new MailSendException(failed);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        List<EmailOutbox> after = reload(emails);
+        assertThat(after.get(0).getStatus()).isEqualTo(EmailOutbox.SENT);
+        assertThat(after.get(1).getStatus()).isEqualTo(EmailOutbox.PENDING);
+        assertThat(after.get(1).getAttempts()).isEqualTo(1);
+        assertThat(after.get(1).getLastError()).contains("mailbox busy");
+        assertThat(after.get(1).getNextAttemptAt()).isAfter(before.plusSeconds(29));
+    }
+
+    @Test
+    void identicalEmailsThatBothFailAreBothRetried() {
+        List<EmailOutbox> emails = queue("same@example.com", "same@example.com");
+        doAnswer(invocation -> {
+            // Keyed the way JavaMailSenderImpl keys failures: by message, in a LinkedHashMap
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (SimpleMailMessage message : (SimpleMailMessage[]) invocation.getRawArguments()[0]) {
+                failed.put(message, new MessagingException("mailbox full"));
+            }
+            throw new MailSendException(failed);
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        dispatcher.dispatch();
+
+        for (EmailOutbox email : reload(emails)) {
+            assertThat(email.getStatus()).isEqualTo(EmailOutbox.PENDING);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getSentAt()).isNull();
+        }
+    }
+
+    @Test
+    void connectionFailureRetriesWithBackoffThenGivesUp() {
+        List<EmailOutbox> emails = queue("a@example.com");
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            dispatcher.dispatch();
+            EmailOutbox email = reload(emails).get(0);
+            assertThat(email.getAttempts()).isEqualTo(attempt);
+            assertThat(email.getLastError()).contains("Connection refused");
+            if (attempt < MAX_ATTEMPTS) {
+                assertThat(email.getStatus()).isEqualTo(EmailOutbox.PENDING);
+                makeDue(email);
+            } else {
+                assertThat(email.getStatus()).isEqualTo(EmailOutbox.FAILED);
+            }
+        }
+
+        dispatcher.dispatch();
+        assertThat(reload(emails).get(0).getAttempts()).isEqualTo(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void groupWithUnknownOutcomeStaysClaimedInsteadOfSent() {
+        // Two messages per connection: the first group dies with a non-mail error, the second is sent
+        List<EmailOutbox> emails = queue("a@example.com", "b@example.com", "c@example.com");
+        doAnswer(invocation -> {
+            SimpleMailMessage[] messages = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            if (messages.length == 2) {
+                throw new IllegalStateException("SMTP client bug");
+            }
+            return null;
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        List<EmailOutbox> after = reload(emails);
+        for (EmailOutbox unknown : after.subList(0, 2)) {
+            assertThat(unknown.getStatus()).isEqualTo(EmailOutbox.PENDING);
+            assertThat(unknown.getAttempts()).isZero();
+            // Still held by the claim; due again once it times out
+            assertThat(unknown.getNextAttemptAt()).isAfter(before.plusMinutes(4));
+        }
+        assertThat(after.get(2).getStatus()).isEqualTo(EmailOutbox.SENT);
+    }
+
+    private List<EmailOutbox> queue(String... recipients) {
+        List<EmailOutbox> emails = new ArrayList<>();
+        for (String recipient : recipients) {
+            EmailOutbox email = new EmailOutbox();
+            email.setSender("noreply@example.com");
+            email.setRecipient(recipient);
+            email.setSubject("Case created");
+            email.setBody("Your case was created.");
+            email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            emails.add(email);
+        }
+        return emailOutboxRepository.saveAll(emails);
+    }
+
+    private List<EmailOutbox> reload(List<EmailOutbox> emails) {
+        return emails.stream()
+                .map(email -> emailOutboxRepository.findById(email.getId()).orElseThrow())
+                .toList();
+    }
+
+    private void makeDue(EmailOutbox email) {
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(email);
+    }
+}
@@ -0,0 +1,93 @@
+package com.rohit.file.config;
+
+import com.rohit.file.service.UploadAdmission;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Applies UploadAdmission to the upload endpoints before the multipart body
+ * is read, so a rejected request costs neither disk spooling nor a DB
+ * connection. Queue full => 503, waited too long => 429, both with
+ * Retry-After. Uploads must declare their size up front, since that is what
+ * they are charged against the in-flight byte budget: a body without a
+ * Content-Length (chunked transfer) gets 411. Every other endpoint passes
+ * straight through.
+ */
+@Component
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final List<PathPattern> POST_UPLOADS = List.of(
+            PathPatternParser.defaultInstance.parse("/file/upload"),
+            PathPatternParser.defaultInstance.parse("/file/upload/batch"));
+
+    // Carries no body; the chunks it assembles were admitted when they were sent
+    private static final PathPattern POST_COMPLETE =
+            PathPatternParser.defaultInstance.parse("/file/upload/sessions/{uploadId}/complete");
+
+    private static final PathPattern PUT_CHUNK =
+            PathPatternParser.defaultInstance.parse("/file/upload/sessions/{uploadId}/chunks/{index}");
+
+    private final UploadAdmission uploadAdmission;
+
+    public UploadAdmissionFilter(UploadAdmission uploadAdmission) {
+        this.uploadAdmission = uploadAdmission;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        PathContainer path = path(request);
+        return switch (request.getMethod()) {
+            case "POST" -> POST_UPLOADS.stream().noneMatch(pattern -> pattern.matches(path))
+                    && !POST_COMPLETE.matches(path);
+            case "PUT" -> !PUT_CHUNK.matches(path);
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long contentLength = request.getContentLengthLong();
+        boolean hasBody = !POST_COMPLETE.matches(path(request));
+        if (contentLength < 0 && hasBody) {
+            response.setStatus(HttpStatus.LENGTH_REQUIRED.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Uploads must send a Content-Length");
+            return;
+        }
+
+        UploadAdmission.Permit permit;
+        try {
+            permit = uploadAdmission.admit(Math.max(0, contentLength));
+        } catch (UploadAdmission.UploadRejectedException e) {
+            HttpStatus status = e.getReason() == UploadAdmission.Rejection.QUEUE_FULL
+                    ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+            response.setStatus(status.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(uploadAdmission.retryAfter().toSeconds()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Too many uploads in progress, retry later");
+            return;
+        }
+
+        try (permit) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static PathContainer path(HttpServletRequest request) {
+        return PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+}
@@ -1,14 +1,30 @@
 package com.rohit.file.controller;
 
+import com.rohit.file.dto.CaseFileSummary;
+import com.rohit.file.dto.CaseSummaryRequest;
+import com.rohit.file.dto.DocContentInfo;
 import com.rohit.file.dto.FileMetadataResponse;
 import com.rohit.file.dto.FileStatusUpdateRequest;
 import com.rohit.file.dto.FileUploadResponse;
+import com.rohit.file.dto.UploadSessionRequest;
+import com.rohit.file.dto.UploadSessionResponse;
+import com.rohit.file.entity.FileMetadata;
+import com.rohit.file.service.CaseArchiveService;
+import com.rohit.file.service.ChunkedUploadService;
 import com.rohit.file.service.FileService;
+import com.rohit.file.storage.BlobResource;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.ZoneId;
 import java.util.List;
 
 @CrossOrigin(origins = "*")
@@ -17,7 +33,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FileUploadController {
 
+    // Hex SHA-256 of the chunk body
+    private static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+    // Upper bound on case ids per summary request (one IN list)
+    private static final int MAX_SUMMARY_CASES = 1000;
+
     private final FileService fileService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final CaseArchiveService caseArchiveService;
 
     // ✓ Upload file
     @PostMapping("/upload")
@@ -29,13 +53,99 @@ public class FileUploadController {
         return fileService.uploadFile(file, caseId, uploadedBy);
     }
 
+    // ✓ Upload several files for one case in a single request
+    @PostMapping("/upload/batch")
+    public List<FileUploadResponse> uploadBatch(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "caseId", required = false) Long caseId,
+            @RequestParam("uploadedBy") String uploadedBy
+    ) throws Exception {
+        return fileService.uploadFiles(files, caseId, uploadedBy);
+    }
+
+    // ✓ Resumable upload for large files: initiate, PUT chunks (any order, retry freely),
+    // GET status to see which chunks arrived, then complete
+    @PostMapping("/upload/sessions")
+    public UploadSessionResponse initiateUpload(@RequestBody UploadSessionRequest req) throws Exception {
+        return chunkedUploadService.initiate(req);
+    }
+
+    // Raw chunk bytes, not multipart, so the servlet multipart limits do not apply
+    @PutMapping(value = "/upload/sessions/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> putChunk(@PathVariable String uploadId,
+                                         @PathVariable int index,
+                                         @RequestHeader(CHUNK_CHECKSUM_HEADER) String sha256,
+                                         InputStream body) throws Exception {
+        chunkedUploadService.putChunk(uploadId, index, sha256, body);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/upload/sessions/{uploadId}")
+    public UploadSessionResponse uploadStatus(@PathVariable String uploadId) {
+        return chunkedUploadService.status(uploadId);
+    }
+
+    @PostMapping("/upload/sessions/{uploadId}/complete")
+    public FileUploadResponse completeUpload(@PathVariable String uploadId) throws Exception {
+        return chunkedUploadService.complete(uploadId);
+    }
+
+    @DeleteMapping("/upload/sessions/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
     // ✓ Get content
+    // Streamed from its blob store. Spring MVC answers Range requests (206, multipart/byteranges)
+    // from the Resource body and If-None-Match / If-Modified-Since with 304 from the headers below.
+    // Compressed docs go out as stored (Content-Encoding: gzip) to clients that accept gzip,
+    // and are inflated on the fly for everyone else.
     @GetMapping("/content/{docId}")
-    public ResponseEntity<byte[]> getDocument(@PathVariable Long docId) {
-        byte[] content = fileService.getDocument(docId);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/octet-stream")
-                .body(content);
+    public ResponseEntity<Resource> getDocument(@PathVariable Long docId,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                String acceptEncoding) {
+        BlobResource content = fileService.getDocument(docId);
+        DocContentInfo info = content.getInfo();
+        boolean sendEncoded = info.isCompressed() && acceptsEncoding(acceptEncoding, info.getCodec());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .lastModified(info.getUploadedAt().atZone(ZoneId.systemDefault()))
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (sendEncoded) {
+            response.header(HttpHeaders.CONTENT_ENCODING, info.getCodec());
+        }
+        if (info.getContentHash() != null) {
+            // Each representation needs its own validator, or caches could mix them up
+            response.eTag(sendEncoded ? info.getContentHash() + "-" + info.getCodec() : info.getContentHash());
+        }
+        return response.body(sendEncoded ? content.encoded() : content);
+    }
+
+    // True if the Accept-Encoding header lists the coding (or *) without q=0
+    private static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String token = params[0].trim();
+            if (!token.equalsIgnoreCase(coding) && !token.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.matches("q=0(\\.0{0,3})?")) {
+                    refused = true;
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // ✓ List files by caseId
@@ -44,6 +154,30 @@ public class FileUploadController {
         return fileService.getFilesByCaseId(caseId);
     }
 
+    // ✓ File counts and sizes (total, TEMP, FINAL) for many cases in one call
+    @PostMapping("/cases/summary")
+    public ResponseEntity<List<CaseFileSummary>> summarizeCases(@RequestBody CaseSummaryRequest req) {
+        if (req.getCaseIds() == null || req.getCaseIds().size() > MAX_SUMMARY_CASES) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(fileService.summarizeCases(req.getCaseIds()));
+    }
+
+    // ✓ Download every file of a case as one ZIP, streamed as it is built
+    @GetMapping("/case/{caseId}/archive")
+    public ResponseEntity<StreamingResponseBody> archive(@PathVariable Long caseId) {
+        List<FileMetadata> files = caseArchiveService.findArchiveEntries(caseId);
+        if (files.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("case-" + caseId + ".zip").build().toString())
+                .body(out -> caseArchiveService.writeArchive(files, out));
+    }
+
     // ✓ Change TEMP → FINAL when case submitted
     @PostMapping("/finalize")
     public ResponseEntity<String> finalizeFiles(@RequestBody FileStatusUpdateRequest req) {
@@ -0,0 +1,16 @@
+package com.rohit.file.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CaseFileSummary {
+    private Long caseId;
+    private long fileCount;
+    private long totalBytes;
+    private long tempCount;
+    private long tempBytes;
+    private long finalCount;
+    private long finalBytes;
+}
@@ -0,0 +1,9 @@
+package com.rohit.file.dto;
+
+// Projection row of the grouped summary query: one per (case, status)
+public interface CaseStatusTotals {
+    Long getCaseId();
+    String getStatus();
+    long getFileCount();
+    long getTotalBytes();
+}
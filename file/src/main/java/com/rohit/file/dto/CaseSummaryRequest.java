@@ -0,0 +1,10 @@
+package com.rohit.file.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CaseSummaryRequest {
+    private List<Long> caseIds;
+}
@@ -0,0 +1,24 @@
+package com.rohit.file.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class DocContentInfo {
+    private Long docId;
+    private long contentLength;         // decoded size, what the client gets
+    private String contentHash;         // null for docs uploaded before hashes were stored
+    private LocalDateTime uploadedAt;
+    private String storage;             // DB / SEGMENT
+    private Long segmentId;             // null unless SEGMENT
+    private Long segmentOffset;
+    private long storedLength;          // bytes actually stored (after compression)
+    private String codec;               // null = stored as-is, or "gzip"
+
+    public boolean isCompressed() {
+        return codec != null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.rohit.file.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class UploadSession {
+    private String id;
+    private Long caseId;
+    private String fileName;
+    private String contentType;
+    private long totalSize;
+    private int chunkSize;
+    private LocalDateTime createdAt;
+    private String uploadedBy;
+
+    public int chunkCount() {
+        return (int) Math.max(1, (totalSize + chunkSize - 1) / chunkSize);
+    }
+
+    // Every chunk is chunkSize bytes except the last one
+    public long chunkLength(int index) {
+        return Math.min(chunkSize, totalSize - (long) index * chunkSize);
+    }
+}
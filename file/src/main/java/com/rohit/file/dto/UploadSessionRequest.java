@@ -0,0 +1,12 @@
+package com.rohit.file.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadSessionRequest {
+    private Long caseId;
+    private String fileName;
+    private String contentType;
+    private Long totalSize;
+    private String uploadedBy;
+}
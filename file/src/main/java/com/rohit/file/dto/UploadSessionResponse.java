@@ -0,0 +1,16 @@
+package com.rohit.file.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String uploadId;
+    private long totalSize;
+    private int chunkSize;
+    private int chunkCount;
+    private List<Integer> receivedChunks;    // indexes already stored, ascending
+}
@@ -20,9 +20,33 @@ public class Doc {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "content", nullable = false)
+    @Column(name = "content")
     @JdbcTypeCode(SqlTypes.VARBINARY)
-    private byte[] content;
+    private byte[] content;             // null when storage = SEGMENT
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;         // SHA-256 hex, unique; also the ETag
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;           // file_metadata rows sharing this blob
+
+    @Column(name = "content_length")
+    private Long contentLength;         // original size
+
+    @Column(name = "stored_length")
+    private Long storedLength;          // size after compression
+
+    @Column(name = "codec", length = 16)
+    private String codec;               // null or "gzip"
+
+    @Column(name = "storage", nullable = false, length = 16)
+    private String storage;             // DB / SEGMENT
+
+    @Column(name = "segment_id")
+    private Long segmentId;
+
+    @Column(name = "segment_offset")
+    private Long segmentOffset;
 
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     private LocalDateTime uploadedAt;
@@ -0,0 +1,315 @@
+package com.rohit.file.repo;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.storage.PendingBlob;
+import com.rohit.file.storage.SegmentBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Plain JDBC access to doc.content.
+ * JPA maps the column as byte[], so anything going through DocRepository
+ * holds the whole file on the heap. This repository streams instead.
+ */
+@Repository
+public class DocContentRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO doc (content, content_hash, ref_count, content_length, stored_length, codec, storage,
+                             uploaded_at, uploaded_by)
+            VALUES (?, ?, ?, ?, ?, ?, 'DB', ?, ?)
+            ON CONFLICT (content_hash) DO UPDATE SET ref_count = doc.ref_count + EXCLUDED.ref_count
+            """;
+
+    private static final String INSERT_SEGMENT_SQL = """
+            INSERT INTO doc (content_hash, ref_count, content_length, stored_length, codec, storage,
+                             segment_id, segment_offset, uploaded_at, uploaded_by)
+            VALUES (?, ?, ?, ?, ?, 'SEGMENT', ?, ?, ?, ?)
+            ON CONFLICT (content_hash) DO UPDATE SET ref_count = doc.ref_count + EXCLUDED.ref_count
+            """;
+
+    // Single-row inserts return the id of whichever row holds the hash afterwards
+    private static final String RETURNING_ID = " RETURNING id";
+
+    private static final String INFO_COLUMNS =
+            "id, content_length, content_hash, uploaded_at, storage, segment_id, segment_offset, stored_length, codec";
+
+    // substring() on an EXTERNAL bytea only fetches the TOAST chunks it needs
+    private static final String CHUNK_SQL =
+            "SELECT substring(content FROM ? FOR ?) FROM doc WHERE id = ?";
+
+    private static final RowMapper<DocContentInfo> INFO_MAPPER = (rs, rowNum) -> new DocContentInfo(
+            rs.getLong("id"),
+            rs.getLong("content_length"),
+            rs.getString("content_hash"),
+            rs.getTimestamp("uploaded_at").toLocalDateTime(),
+            rs.getString("storage"),
+            rs.getObject("segment_id", Long.class),
+            rs.getObject("segment_offset", Long.class),
+            rs.getLong("stored_length"),
+            rs.getString("codec"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int chunkSize;
+
+    public DocContentRepository(JdbcTemplate jdbcTemplate,
+                                NamedParameterJdbcTemplate namedJdbcTemplate,
+                                @Value("${file.upload.chunk-size:65536}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    // Add a reference to the doc already holding this content; empty if there is none yet
+    public Optional<Long> reference(String contentHash) {
+        int updated = jdbcTemplate.update(
+                "UPDATE doc SET ref_count = ref_count + 1 WHERE content_hash = ?", contentHash);
+        if (updated == 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT id FROM doc WHERE content_hash = ?", Long.class, contentHash));
+    }
+
+    // Insert a new doc row, streaming the blob's stored bytes in chunkSize pieces.
+    // If a concurrent upload stored the same hash first, the bytes are discarded and
+    // that doc gets the extra references instead.
+    public Long insert(PendingBlob blob, String uploadedBy) throws IOException {
+        Long docId;
+        try (InputStream content = new BufferedInputStream(blob.content().getInputStream(), chunkSize)) {
+            docId = jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SQL + RETURNING_ID);
+                setInsertValues(ps, blob, content, uploadedBy, Timestamp.valueOf(LocalDateTime.now()));
+                return ps;
+            }, rs -> rs.next() ? rs.getLong(1) : null);
+        }
+        return Objects.requireNonNull(docId, "No id returned for doc");
+    }
+
+    // Insert a doc row whose bytes were already appended to a segment file (same dedup rules as insert)
+    public Long insertSegment(PendingBlob blob, SegmentBlobStore.Location location, String uploadedBy) {
+        Long docId = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SEGMENT_SQL + RETURNING_ID);
+            setInsertSegmentValues(ps, blob, location, uploadedBy, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, rs -> rs.next() ? rs.getLong(1) : null);
+
+        return Objects.requireNonNull(docId, "No id returned for doc");
+    }
+
+    // Add `count` references to each existing hash in one batch; returns the hashes that existed
+    public Set<String> referenceAll(Map<String, Integer> countsByHash) {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(countsByHash.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE doc SET ref_count = ref_count + ? WHERE content_hash = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, entries.get(i).getValue());
+                        ps.setString(2, entries.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) {
+                existing.add(entries.get(i).getKey());
+            }
+        }
+        return existing;
+    }
+
+    // Insert several DB-stored docs in one JDBC batch, each streamed from its source
+    public void insertBatch(List<PendingBlob> blobs, String uploadedBy) throws IOException {
+        List<InputStream> streams = new ArrayList<>(blobs.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            for (PendingBlob blob : blobs) {
+                streams.add(new BufferedInputStream(blob.content().getInputStream(), chunkSize));
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setInsertValues(ps, blobs.get(i), streams.get(i), uploadedBy, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return blobs.size();
+                }
+            });
+        } finally {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    // Insert several segment-stored docs in one JDBC batch; locations match blobs by index
+    public void insertSegmentBatch(List<PendingBlob> blobs, List<SegmentBlobStore.Location> locations, String uploadedBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SEGMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setInsertSegmentValues(ps, blobs.get(i), locations.get(i), uploadedBy, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return blobs.size();
+            }
+        });
+    }
+
+    private static void setInsertValues(PreparedStatement ps, PendingBlob blob, InputStream content,
+                                        String uploadedBy, Timestamp now) throws SQLException {
+        // Known length => the driver copies the stream to the socket, never to a byte[]
+        ps.setBinaryStream(1, content, blob.storedLength());
+        ps.setString(2, blob.contentHash());
+        ps.setInt(3, blob.refCount());
+        ps.setLong(4, blob.contentLength());
+        ps.setLong(5, blob.storedLength());
+        ps.setString(6, blob.codec());
+        ps.setTimestamp(7, now);
+        ps.setString(8, uploadedBy);
+    }
+
+    private static void setInsertSegmentValues(PreparedStatement ps, PendingBlob blob, SegmentBlobStore.Location location,
+                                               String uploadedBy, Timestamp now) throws SQLException {
+        ps.setString(1, blob.contentHash());
+        ps.setInt(2, blob.refCount());
+        ps.setLong(3, blob.contentLength());
+        ps.setLong(4, blob.storedLength());
+        ps.setString(5, blob.codec());
+        ps.setLong(6, location.segmentId());
+        ps.setLong(7, location.offset());
+        ps.setTimestamp(8, now);
+        ps.setString(9, uploadedBy);
+    }
+
+    // Doc ids for a set of hashes in one query
+    public Map<String, Long> findIdsByHash(Collection<String> contentHashes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (contentHashes.isEmpty()) {
+            return ids;
+        }
+        namedJdbcTemplate.query("SELECT id, content_hash FROM doc WHERE content_hash IN (:hashes)",
+                new MapSqlParameterSource("hashes", contentHashes),
+                rs -> {
+                    ids.put(rs.getString("content_hash"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    // Drop one reference; the doc row is deleted once nothing points at it.
+    // Returns true if the blob itself was deleted.
+    public boolean release(Long docId) {
+        jdbcTemplate.update("UPDATE doc SET ref_count = ref_count - 1 WHERE id = ?", docId);
+        return jdbcTemplate.update("DELETE FROM doc WHERE id = ? AND ref_count <= 0", docId) > 0;
+    }
+
+    // Drop several references at once (docId -> count); returns the stored_length of each doc deleted
+    public List<Long> releaseAll(Map<Long, Integer> countsByDocId) {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(countsByDocId.entrySet());
+        jdbcTemplate.batchUpdate("UPDATE doc SET ref_count = ref_count - ? WHERE id = ?",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setInt(1, entries.get(i).getValue());
+                        ps.setLong(2, entries.get(i).getKey());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                });
+
+        return namedJdbcTemplate.queryForList(
+                "DELETE FROM doc WHERE id IN (:ids) AND ref_count <= 0 RETURNING stored_length",
+                new MapSqlParameterSource("ids", countsByDocId.keySet()),
+                Long.class);
+    }
+
+    // Length, hash, timestamp and location of a doc without touching the content itself
+    public Optional<DocContentInfo> findInfo(Long docId) {
+        List<DocContentInfo> rows = jdbcTemplate.query(
+                "SELECT " + INFO_COLUMNS + " FROM doc WHERE id = ?", INFO_MAPPER, docId);
+        return rows.stream().findFirst();
+    }
+
+    // Read up to `length` bytes starting at the 0-based `offset`; empty if the doc is gone
+    // or its bytes are no longer in the row (moved to a segment)
+    public Optional<byte[]> readChunk(Long docId, long offset, int length) {
+        List<byte[]> rows = jdbcTemplate.query(CHUNK_SQL,
+                (rs, rowNum) -> rs.getBytes(1),
+                offset + 1, length, docId);
+        return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+    }
+
+    // Next batch of docs held in the given storage, keyset-paginated on id
+    public List<DocContentInfo> findByStorage(String storage, long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT " + INFO_COLUMNS + " FROM doc WHERE storage = ? AND id > ? ORDER BY id LIMIT ?",
+                INFO_MAPPER, storage, afterId, limit);
+    }
+
+    // Next batch of docs stored in one segment file, keyset-paginated on id
+    public List<DocContentInfo> findBySegment(long segmentId, long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT " + INFO_COLUMNS + " FROM doc WHERE storage = 'SEGMENT' AND segment_id = ? AND id > ? ORDER BY id LIMIT ?",
+                INFO_MAPPER, segmentId, afterId, limit);
+    }
+
+    // Bytes in a segment file still referenced by a doc row
+    public long liveSegmentBytes(long segmentId) {
+        Long live = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(stored_length), 0) FROM doc WHERE storage = 'SEGMENT' AND segment_id = ?",
+                Long.class, segmentId);
+        return live == null ? 0 : live;
+    }
+
+    // Point a DB-stored doc at its copy in a segment file and drop the BYTEA
+    public boolean moveToSegment(Long docId, long segmentId, long segmentOffset) {
+        return jdbcTemplate.update("""
+                UPDATE doc SET storage = 'SEGMENT', segment_id = ?, segment_offset = ?, content = NULL
+                WHERE id = ? AND storage = 'DB'
+                """, segmentId, segmentOffset, docId) > 0;
+    }
+
+    // Move a segment-stored doc to a new location, only if nobody moved it in the meantime
+    public boolean relocate(DocContentInfo doc, long segmentId, long segmentOffset) {
+        return jdbcTemplate.update("""
+                UPDATE doc SET segment_id = ?, segment_offset = ?
+                WHERE id = ? AND storage = 'SEGMENT' AND segment_id = ? AND segment_offset = ?
+                """, segmentId, segmentOffset, doc.getDocId(), doc.getSegmentId(), doc.getSegmentOffset()) > 0;
+    }
+}
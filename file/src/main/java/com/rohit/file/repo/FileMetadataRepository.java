@@ -1,5 +1,6 @@
 package com.rohit.file.repo;
 
+import com.rohit.file.dto.CaseStatusTotals;
 import com.rohit.file.entity.FileMetadata;
 import com.rohit.file.entity.FileStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long> {
@@ -18,6 +20,16 @@ public interface FileMetadataRepository extends JpaRepository<FileMetadata, Long
 
     List<FileMetadata> findByCaseIdAndStatus(Long caseId, FileStatus status);
 
+    // Counts and bytes per (case, status) straight from the index, no entities loaded
+    @Query("""
+            SELECT f.caseId AS caseId, f.status AS status,
+                   COUNT(f) AS fileCount, COALESCE(SUM(f.fileSize), 0) AS totalBytes
+            FROM FileMetadata f
+            WHERE f.caseId IN :caseIds
+            GROUP BY f.caseId, f.status
+            """)
+    List<CaseStatusTotals> summarizeByCaseIds(@Param("caseIds") Collection<Long> caseIds);
+
     @Transactional
     @Modifying
     @Query("UPDATE FileMetadata f SET f.status = :status WHERE f.caseId = :caseId")
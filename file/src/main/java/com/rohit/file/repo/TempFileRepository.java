@@ -0,0 +1,66 @@
+package com.rohit.file.repo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * JDBC queries used by TempFileSweeper to find stale TEMP uploads and to
+ * finalize or remove them, one bounded batch at a time.
+ */
+@Repository
+public class TempFileRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TempFileRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    // A TEMP upload and the case id it was sent with
+    public record TempFile(long id, long caseId) {
+    }
+
+    // Next page of stale TEMP metadata ids uploaded without a case, keyset-paginated on id
+    public List<Long> findStaleOrphanIds(LocalDateTime uploadedBefore, long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                        SELECT id FROM file_metadata
+                        WHERE status = 'TEMP' AND case_id IS NULL AND uploaded_at < ? AND id > ?
+                        ORDER BY id LIMIT ?
+                        """,
+                Long.class, Timestamp.valueOf(uploadedBefore), afterId, limit);
+    }
+
+    // Next page of stale TEMP uploads sent with a case id (the case may exist; finalize is best effort)
+    public List<TempFile> findStaleWithCase(LocalDateTime uploadedBefore, long afterId, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT id, case_id FROM file_metadata
+                        WHERE status = 'TEMP' AND case_id IS NOT NULL AND uploaded_at < ? AND id > ?
+                        ORDER BY id LIMIT ?
+                        """,
+                (rs, rowNum) -> new TempFile(rs.getLong("id"), rs.getLong("case_id")),
+                Timestamp.valueOf(uploadedBefore), afterId, limit);
+    }
+
+    // Mark those rows FINAL that are still TEMP; returns how many changed
+    public int finalizeStillTemp(List<Long> metadataIds) {
+        return namedJdbcTemplate.update(
+                "UPDATE file_metadata SET status = 'FINAL' WHERE id IN (:ids) AND status = 'TEMP'",
+                new MapSqlParameterSource("ids", metadataIds));
+    }
+
+    // Delete those rows that are still TEMP (a finalize may have won) and return their doc ids
+    public List<Long> deleteStillTemp(List<Long> metadataIds) {
+        return namedJdbcTemplate.queryForList(
+                "DELETE FROM file_metadata WHERE id IN (:ids) AND status = 'TEMP' RETURNING doc_id",
+                new MapSqlParameterSource("ids", metadataIds),
+                Long.class);
+    }
+}
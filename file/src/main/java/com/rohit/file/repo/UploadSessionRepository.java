@@ -0,0 +1,66 @@
+package com.rohit.file.repo;
+
+import com.rohit.file.dto.UploadSession;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to upload_session, the durable state of chunked uploads.
+ * Chunk bytes themselves live in the staging directory, not here.
+ */
+@Repository
+public class UploadSessionRepository {
+
+    private static final String COLUMNS =
+            "id, case_id, file_name, content_type, total_size, chunk_size, created_at, uploaded_by";
+
+    private static final RowMapper<UploadSession> MAPPER = (rs, rowNum) -> new UploadSession(
+            rs.getString("id"),
+            rs.getObject("case_id", Long.class),
+            rs.getString("file_name"),
+            rs.getString("content_type"),
+            rs.getLong("total_size"),
+            rs.getInt("chunk_size"),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getString("uploaded_by"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UploadSessionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(UploadSession session) {
+        jdbcTemplate.update("INSERT INTO upload_session (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                session.getId(), session.getCaseId(), session.getFileName(), session.getContentType(),
+                session.getTotalSize(), session.getChunkSize(), Timestamp.valueOf(session.getCreatedAt()),
+                session.getUploadedBy());
+    }
+
+    public Optional<UploadSession> findById(String id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM upload_session WHERE id = ?", MAPPER, id)
+                .stream().findFirst();
+    }
+
+    // Lock the row for completion so two concurrent completes cannot both store the file
+    public Optional<UploadSession> lockById(String id) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM upload_session WHERE id = ? FOR UPDATE", MAPPER, id)
+                .stream().findFirst();
+    }
+
+    public boolean delete(String id) {
+        return jdbcTemplate.update("DELETE FROM upload_session WHERE id = ?", id) > 0;
+    }
+
+    // Remove sessions started before the cutoff and return their ids
+    public List<String> deleteCreatedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForList("DELETE FROM upload_session WHERE created_at < ? RETURNING id",
+                String.class, Timestamp.valueOf(cutoff));
+    }
+}
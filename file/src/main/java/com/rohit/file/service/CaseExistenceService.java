@@ -0,0 +1,156 @@
+package com.rohit.file.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "does case X exist?" for uploads, backed by data-service.
+ * Cases are never deleted, so positive answers are cached for the TTL;
+ * negative ones are not, since the case may be created any moment.
+ * Concurrent lookups of the same id share one in-flight remote call.
+ * Batch checks (casesExist) always ask data-service and only feed the cache.
+ */
+@Slf4j
+@Service
+public class CaseExistenceService {
+
+    private final WebClient webClient;
+    private final String dataServiceBaseUrl;
+    private final Duration timeout;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final Map<Long, Long> existingCases = new ConcurrentHashMap<>();   // caseId -> expiry (nanoTime)
+    private final Map<Long, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter coalesced;
+    private final Timer remoteCalls;
+
+    public CaseExistenceService(WebClient webClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${data.service.base-url}") String dataServiceBaseUrl,
+                                @Value("${data.service.exists.timeout:2s}") Duration timeout,
+                                @Value("${data.service.exists.cache-ttl:1h}") Duration ttl,
+                                @Value("${data.service.exists.cache-max-size:100000}") int maxSize) {
+        this.webClient = webClient;
+        this.dataServiceBaseUrl = dataServiceBaseUrl;
+        this.timeout = timeout;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+
+        this.cacheHits = meterRegistry.counter("file.case.exists.cache", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("file.case.exists.cache", "result", "miss");
+        this.coalesced = meterRegistry.counter("file.case.exists.coalesced");
+        this.remoteCalls = Timer.builder("file.case.exists.remote")
+                .description("Latency of GET /data/{id}/exists and POST /data/exists")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("file.case.exists.cache.size", existingCases, Map::size).register(meterRegistry);
+    }
+
+    // Start a lookup without blocking; callers can overlap it with other work and join later
+    public CompletableFuture<Boolean> caseExistsAsync(Long caseId) {
+        if (caseId == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        Long expiresAt = existingCases.get(caseId);
+        if (expiresAt != null && expiresAt - System.nanoTime() > 0) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(true);
+        }
+        cacheMisses.increment();
+
+        CompletableFuture<Boolean> lookup = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(caseId, lookup);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        long started = System.nanoTime();
+        webClient.get()
+                .uri(dataServiceBaseUrl + "/data/" + caseId + "/exists")
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .timeout(timeout)
+                .toFuture()
+                .whenComplete((response, error) -> {
+                    remoteCalls.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    inFlight.remove(caseId, lookup);
+
+                    if (error != null) {
+                        log.warn("Error calling data service for case {}: {}", caseId, error.getMessage());
+                        lookup.complete(false);
+                        return;
+                    }
+                    boolean exists = response != null && response;
+                    if (exists) {
+                        remember(caseId);
+                    }
+                    lookup.complete(exists);
+                });
+        return lookup;
+    }
+
+    public boolean caseExists(Long caseId) {
+        return caseExistsAsync(caseId).join();
+    }
+
+    // Exact answer for many ids from POST /data/exists; errors propagate, so a failed call never reads as "missing"
+    public Map<Long, Boolean> casesExist(Collection<Long> caseIds) {
+        Map<Long, Boolean> result = new HashMap<>();
+        if (caseIds.isEmpty()) {
+            return result;
+        }
+        long started = System.nanoTime();
+        try {
+            Map<Long, Boolean> response = webClient.post()
+                    .uri(dataServiceBaseUrl + "/data/exists")
+                    .bodyValue(caseIds)
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<Long, Boolean>>() {})
+                    .timeout(timeout)
+                    .block();
+            if (response != null) {
+                result.putAll(response);
+            }
+        } finally {
+            remoteCalls.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        result.forEach((caseId, exists) -> {
+            if (Boolean.TRUE.equals(exists)) {
+                remember(caseId);
+            }
+        });
+        return result;
+    }
+
+    private void remember(Long caseId) {
+        long now = System.nanoTime();
+        if (existingCases.size() >= maxSize) {
+            existingCases.values().removeIf(expiresAt -> expiresAt - now <= 0);
+            if (existingCases.size() >= maxSize) {
+                return;
+            }
+        }
+        existingCases.put(caseId, now + ttlNanos);
+    }
+}
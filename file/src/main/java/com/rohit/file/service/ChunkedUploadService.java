@@ -0,0 +1,292 @@
+package com.rohit.file.service;
+
+import com.rohit.file.dto.FileUploadResponse;
+import com.rohit.file.dto.UploadSession;
+import com.rohit.file.dto.UploadSessionRequest;
+import com.rohit.file.dto.UploadSessionResponse;
+import com.rohit.file.entity.FileStatus;
+import com.rohit.file.repo.UploadSessionRepository;
+import com.rohit.file.storage.BlobStore;
+import com.rohit.file.storage.BlobStores;
+import com.rohit.file.storage.StorageType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Resumable uploads for files above the multipart limit.
+ * The client initiates a session, PUTs fixed-size chunks (each with its
+ * SHA-256) in any order and as often as it needs to, asks which chunks
+ * arrived, then completes. Chunks are streamed to a staging directory and
+ * the completed file goes through the regular hashing, dedup and blob store
+ * path.
+ *
+ * Sessions are capped at what the write store can hold in one doc, so an
+ * upload the store would refuse fails at initiate, not after every chunk
+ * was sent. Complete hashes, compresses and stores the file with no lock
+ * and no transaction open; only attaching the stored doc to the session is
+ * done under the session's row lock, which re-checks that no concurrent
+ * complete or abort got there first.
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileService fileService;
+    private final BlobStores blobStores;
+    private final TransactionTemplate transactionTemplate;
+    private final Path stagingDir;
+    private final int chunkSize;
+    private final long maxSize;
+    private final Duration ttl;
+
+    public ChunkedUploadService(UploadSessionRepository uploadSessionRepository,
+                                FileService fileService,
+                                BlobStores blobStores,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${file.upload.session.dir:${java.io.tmpdir}/file-upload-sessions}") Path stagingDir,
+                                @Value("${file.upload.session.chunk-size:8MB}") DataSize chunkSize,
+                                @Value("${file.upload.session.max-size:10GB}") DataSize maxSize,
+                                @Value("${file.upload.session.ttl:24h}") Duration ttl) throws IOException {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileService = fileService;
+        this.blobStores = blobStores;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stagingDir = Files.createDirectories(stagingDir);
+        this.chunkSize = Math.toIntExact(chunkSize.toBytes());
+        this.maxSize = maxSize.toBytes();
+        this.ttl = ttl;
+    }
+
+    // ✓ 1. Start an upload; the server picks the chunk size
+    public UploadSessionResponse initiate(UploadSessionRequest request) throws IOException {
+        if (request.getFileName() == null || request.getUploadedBy() == null || request.getTotalSize() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "fileName, totalSize and uploadedBy are required");
+        }
+        // Compression may shrink the stored bytes, but that is only known once the whole file is here
+        BlobStore writeStore = blobStores.forWrite();
+        long limit = Math.min(maxSize, writeStore.maxBlobSize());
+        if (request.getTotalSize() < 0 || request.getTotalSize() > limit) {
+            String reason = "totalSize must be between 0 and " + limit;
+            if (limit < maxSize) {
+                reason += " with " + writeStore.type() + " storage; larger files need " + StorageType.SEGMENT + " storage";
+            }
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, reason);
+        }
+
+        String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), request.getCaseId(),
+                request.getFileName(), contentType, request.getTotalSize(), chunkSize,
+                LocalDateTime.now(), request.getUploadedBy());
+
+        Files.createDirectories(sessionDir(session.getId()));
+        uploadSessionRepository.insert(session);
+        return toResponse(session);
+    }
+
+    // ✓ 2. Store one chunk. Re-sending a chunk replaces it, so failed chunks are simply retried.
+    public void putChunk(String uploadId, int index, String sha256, InputStream body) throws IOException {
+        UploadSession session = findSession(uploadId);
+        if (index < 0 || index >= session.chunkCount()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Chunk index must be between 0 and " + (session.chunkCount() - 1));
+        }
+        if (sha256 == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk checksum is required");
+        }
+
+        // Write to a private temp file and move it into place only once length and checksum match
+        long expected = session.chunkLength(index);
+        Path dir = Files.createDirectories(sessionDir(uploadId));
+        Path partial = Files.createTempFile(dir, "chunk-" + index + "-", ".tmp");
+        try {
+            MessageDigest digest = ContentHasher.newDigest();
+            long received = 0;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while (received <= expected && (n = body.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                    digest.update(buffer, 0, n);
+                    received += n;
+                }
+            }
+            if (received != expected) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Chunk " + index + " must be " + expected + " bytes");
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256.trim())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Checksum mismatch for chunk " + index);
+            }
+            Files.move(partial, chunkPath(uploadId, index),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    // ✓ 3. Which chunks are already stored (the client re-sends the rest)
+    public UploadSessionResponse status(String uploadId) {
+        return toResponse(findSession(uploadId));
+    }
+
+    // ✓ 4. Assemble the chunks into a doc + file metadata and end the session
+    public FileUploadResponse complete(String uploadId) throws IOException {
+        UploadSession session = findSession(uploadId);
+        List<Path> chunks = new ArrayList<>(session.chunkCount());
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < session.chunkCount(); i++) {
+            Path chunk = chunkPath(uploadId, i);
+            if (Files.exists(chunk) && Files.size(chunk) == session.chunkLength(i)) {
+                chunks.add(chunk);
+            } else {
+                missing.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Missing chunks: " + missing);
+        }
+
+        // The long part: no session lock, no transaction
+        StagedUploadFile file = new StagedUploadFile(session, chunks);
+        FileStatus status = fileService.checkCaseExists(session.getCaseId()) ? FileStatus.FINAL : FileStatus.TEMP;
+        Long docId;
+        try {
+            String contentHash;
+            try (InputStream in = file.getInputStream()) {
+                contentHash = ContentHasher.sha256(in);
+            }
+            docId = fileService.storeContent(file, contentHash, session.getUploadedBy());
+        } catch (NoSuchFileException e) {
+            // A concurrent complete or abort already dropped the staged chunks
+            throw completedMeanwhile(uploadId);
+        }
+
+        // The short part: attach the doc only if the session is still there
+        FileUploadResponse response;
+        try {
+            response = transactionTemplate.execute(tx -> {
+                if (uploadSessionRepository.lockById(uploadId).isEmpty()) {
+                    throw completedMeanwhile(uploadId);
+                }
+                FileUploadResponse saved = fileService.saveMetadata(file, docId, session.getCaseId(), status,
+                        session.getUploadedBy());
+                uploadSessionRepository.delete(uploadId);
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            fileService.releaseContent(docId);
+            throw e;
+        }
+
+        // Staged bytes are only safe to drop once the doc is committed
+        deleteStaged(uploadId);
+        return response;
+    }
+
+    // ✓ 5. Abandon an upload
+    public void abort(String uploadId) {
+        if (!uploadSessionRepository.delete(uploadId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId);
+        }
+        deleteStaged(uploadId);
+    }
+
+    // Drop sessions nobody completed within the TTL, and staging dirs left without a session
+    @Scheduled(fixedDelayString = "${file.upload.session.cleanup-interval-ms:3600000}",
+               initialDelayString = "${file.upload.session.cleanup-initial-delay-ms:60000}")
+    public void expireSessions() {
+        List<String> expired = uploadSessionRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        expired.forEach(this::deleteStaged);
+
+        Instant cutoff = Instant.now().minus(ttl);
+        try (Stream<Path> dirs = Files.list(stagingDir)) {
+            dirs.filter(dir -> isOlderThan(dir, cutoff))
+                    .map(dir -> dir.getFileName().toString())
+                    .filter(id -> UPLOAD_ID.matcher(id).matches())
+                    .filter(id -> uploadSessionRepository.findById(id).isEmpty())
+                    .forEach(this::deleteStaged);
+        } catch (IOException e) {
+            log.warn("Could not list upload staging dir {}: {}", stagingDir, e.getMessage());
+        }
+        if (!expired.isEmpty()) {
+            log.info("Expired {} chunked upload sessions", expired.size());
+        }
+    }
+
+    private static ResponseStatusException completedMeanwhile(String uploadId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Upload " + uploadId + " was completed or aborted meanwhile");
+    }
+
+    private UploadSession findSession(String uploadId) {
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId));
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        List<Integer> received = IntStream.range(0, session.chunkCount())
+                .filter(i -> Files.exists(chunkPath(session.getId(), i)))
+                .boxed()
+                .toList();
+        return new UploadSessionResponse(session.getId(), session.getTotalSize(), session.getChunkSize(),
+                session.chunkCount(), received);
+    }
+
+    private void deleteStaged(String uploadId) {
+        try {
+            FileSystemUtils.deleteRecursively(sessionDir(uploadId));
+        } catch (IOException e) {
+            log.warn("Could not delete staged chunks of upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    private static boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path sessionDir(String uploadId) {
+        // Ids are server-generated UUIDs; anything else must not reach the filesystem
+        if (!UPLOAD_ID.matcher(uploadId).matches()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found: " + uploadId);
+        }
+        return stagingDir.resolve(uploadId);
+    }
+
+    private Path chunkPath(String uploadId, int index) {
+        return sessionDir(uploadId).resolve("chunk-" + index);
+    }
+}
@@ -1,95 +1,177 @@
 package com.rohit.file.service;
 
+import com.rohit.file.dto.CaseFileSummary;
+import com.rohit.file.dto.CaseStatusTotals;
 import com.rohit.file.dto.FileMetadataResponse;
 import com.rohit.file.dto.FileUploadResponse;
-import com.rohit.file.entity.Doc;
 import com.rohit.file.entity.FileMetadata;
 import com.rohit.file.entity.FileStatus;
-import com.rohit.file.repo.DocRepository;
+import com.rohit.file.repo.DocContentRepository;
 import com.rohit.file.repo.FileMetadataRepository;
+import com.rohit.file.storage.BlobEncoder;
+import com.rohit.file.storage.BlobResource;
+import com.rohit.file.storage.BlobStores;
+import com.rohit.file.storage.PendingBlob;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class FileService {
 
     private final FileMetadataRepository metadataRepository;
-    private final DocRepository docRepository;
-    private final WebClient webClient;
-    private final String dataServiceBaseUrl;
+    private final DocContentRepository docContentRepository;
+    private final BlobStores blobStores;
+    private final BlobEncoder blobEncoder;
+    private final CaseExistenceService caseExistenceService;
 
     public FileService(FileMetadataRepository fileMetadataRepository,
-                       DocRepository docRepository,
-                       WebClient webClient,
-                       @Value("${data.service.base-url}") String dataServiceBaseUrl) {
+                       DocContentRepository docContentRepository,
+                       BlobStores blobStores,
+                       BlobEncoder blobEncoder,
+                       CaseExistenceService caseExistenceService) {
         this.metadataRepository = fileMetadataRepository;
-        this.docRepository = docRepository;
-        this.webClient = webClient;
-        this.dataServiceBaseUrl = dataServiceBaseUrl;
+        this.docContentRepository = docContentRepository;
+        this.blobStores = blobStores;
+        this.blobEncoder = blobEncoder;
+        this.caseExistenceService = caseExistenceService;
     }
 
     // ✓ 1. Upload file (TEMP or FINAL based on case existence)
     @Transactional
     public FileUploadResponse uploadFile(MultipartFile file, Long caseId, String uploadedBy) throws IOException {
 
-        boolean caseExists = checkCaseExists(caseId);
+        // Ask data-service in the background while the file is hashed
+        CompletableFuture<Boolean> caseExists = caseExistenceService.caseExistsAsync(caseId);
 
-        FileStatus status = caseExists ? FileStatus.FINAL : FileStatus.TEMP;
+        // Hash the spooled part first; identical content is stored once and reference-counted
+        String contentHash;
+        try (InputStream in = file.getInputStream()) {
+            contentHash = ContentHasher.sha256(in);
+        }
+
+        FileStatus status = caseExists.join() ? FileStatus.FINAL : FileStatus.TEMP;
+
+        Long docId = storeContent(file, contentHash, uploadedBy);
+        return saveMetadata(file, docId, caseId, status, uploadedBy);
+    }
+
+    // Add one reference to the doc holding these bytes, or stream them into the configured store
+    // if nobody stored them before (compressed first when the content type is worth it).
+    // Outside a transaction every write commits on its own; the caller owns the reference.
+    public Long storeContent(MultipartFile file, String contentHash, String uploadedBy) throws IOException {
+        Long docId = docContentRepository.reference(contentHash).orElse(null);
+        if (docId == null) {
+            PendingBlob blob = blobEncoder.prepare(file, contentHash, 1);
+            try {
+                docId = blobStores.forWrite().store(blob, uploadedBy);
+            } finally {
+                blob.discard();
+            }
+        }
+        return docId;
+    }
 
-        // Save BLOB in doc table
-        Doc doc = new Doc();
-        doc.setContent(file.getBytes());
-        doc.setUploadedBy(uploadedBy);
-        Doc savedDoc = docRepository.save(doc);
+    // File metadata pointing at a reference taken by storeContent
+    public FileUploadResponse saveMetadata(MultipartFile file, Long docId, Long caseId,
+                                           FileStatus status, String uploadedBy) {
+        FileMetadata savedMeta = metadataRepository.save(newMetadata(file, docId, caseId, status, uploadedBy));
+        return new FileUploadResponse(savedMeta.getId(), docId, status);
+    }
+
+    // Give back a reference from storeContent that no metadata will use
+    @Transactional
+    public void releaseContent(Long docId) {
+        docContentRepository.release(docId);
+    }
+
+    // ✓ 1b. Upload several files for one case: one existence check, batched doc and metadata writes
+    @Transactional
+    public List<FileUploadResponse> uploadFiles(List<MultipartFile> files, Long caseId, String uploadedBy) throws IOException {
+
+        CompletableFuture<Boolean> caseExists = caseExistenceService.caseExistsAsync(caseId);
+
+        // Hash every part; identical parts within the batch collapse into one blob
+        List<String> hashes = new ArrayList<>(files.size());
+        Map<String, MultipartFile> filesByHash = new LinkedHashMap<>();
+        Map<String, Integer> counts = new TreeMap<>();   // sorted so concurrent batches lock rows in the same order
+        for (MultipartFile file : files) {
+            String contentHash;
+            try (InputStream in = file.getInputStream()) {
+                contentHash = ContentHasher.sha256(in);
+            }
+            hashes.add(contentHash);
+            filesByHash.putIfAbsent(contentHash, file);
+            counts.merge(contentHash, 1, Integer::sum);
+        }
+
+        FileStatus status = caseExists.join() ? FileStatus.FINAL : FileStatus.TEMP;
+
+        // Known content only gains references; only new content is encoded and stored
+        Set<String> existing = docContentRepository.referenceAll(counts);
+
+        List<PendingBlob> newBlobs = new ArrayList<>();
+        try {
+            for (Map.Entry<String, MultipartFile> entry : filesByHash.entrySet()) {
+                if (!existing.contains(entry.getKey())) {
+                    newBlobs.add(blobEncoder.prepare(entry.getValue(), entry.getKey(), counts.get(entry.getKey())));
+                }
+            }
+            if (!newBlobs.isEmpty()) {
+                blobStores.forWrite().storeBatch(newBlobs, uploadedBy);
+            }
+        } finally {
+            newBlobs.forEach(PendingBlob::discard);
+        }
+        Map<String, Long> docIds = docContentRepository.findIdsByHash(filesByHash.keySet());
 
-        // Save metadata
+        // Sequence ids let Hibernate send these as one JDBC batch
+        List<FileMetadata> metas = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            metas.add(newMetadata(files.get(i), docIds.get(hashes.get(i)), caseId, status, uploadedBy));
+        }
+
+        return metadataRepository.saveAll(metas).stream()
+                .map(meta -> new FileUploadResponse(meta.getId(), meta.getDocId(), status))
+                .toList();
+    }
+
+    private static FileMetadata newMetadata(MultipartFile file, Long docId, Long caseId,
+                                            FileStatus status, String uploadedBy) {
         FileMetadata meta = new FileMetadata();
-        meta.setDocId(savedDoc.getId());
+        meta.setDocId(docId);
         meta.setCaseId(caseId);
         meta.setFileName(file.getOriginalFilename());
         meta.setFileSize(file.getSize());
         meta.setContentType(file.getContentType());
         meta.setStatus(status.name()); // Convert enum to String
         meta.setUploadedBy(uploadedBy);
-
-        FileMetadata savedMeta = metadataRepository.save(meta);
-
-        return new FileUploadResponse(savedMeta.getId(), savedDoc.getId(), status);
+        return meta;
     }
 
     public boolean checkCaseExists(Long caseId) {
-
-        String url = dataServiceBaseUrl + "/data/" + caseId + "/exists";
-
-        try {
-            Boolean response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-            return response != null && response;
-
-        } catch (Exception e) {
-            System.out.println("Error calling data service: " + e.getMessage());
-            return false;
-        }
+        return caseExistenceService.caseExists(caseId);
     }
 
 
-    // ✓ 2. Get document content
-    public byte[] getDocument(Long docId) {
-        return docRepository.findById(docId)
-                .orElseThrow(() -> new RuntimeException("Document not found with id: " + docId))
-                .getContent();
+    // ✓ 2. Get document content (lazy, read from its store while the response is written)
+    public BlobResource getDocument(Long docId) {
+        return docContentRepository.findInfo(docId)
+                .map(info -> blobStores.forDoc(info).load(info))
+                .orElseThrow(() -> new RuntimeException("Document not found with id: " + docId));
     }
 
     // ✓ 3. Get all files for case
@@ -108,19 +190,45 @@ public class FileService {
                 .toList();
     }
 
+    // ✓ 3b. File counts and bytes for many cases from one grouped query; cases without files get zeros
+    public List<CaseFileSummary> summarizeCases(List<Long> caseIds) {
+        Map<Long, CaseFileSummary> summaries = new LinkedHashMap<>();
+        caseIds.stream().filter(Objects::nonNull).distinct()
+                .forEach(caseId -> summaries.put(caseId, new CaseFileSummary(caseId, 0, 0, 0, 0, 0, 0)));
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+
+        for (CaseStatusTotals totals : metadataRepository.summarizeByCaseIds(summaries.keySet())) {
+            CaseFileSummary summary = summaries.get(totals.getCaseId());
+            summary.setFileCount(summary.getFileCount() + totals.getFileCount());
+            summary.setTotalBytes(summary.getTotalBytes() + totals.getTotalBytes());
+            if (FileStatus.TEMP.name().equals(totals.getStatus())) {
+                summary.setTempCount(totals.getFileCount());
+                summary.setTempBytes(totals.getTotalBytes());
+            } else if (FileStatus.FINAL.name().equals(totals.getStatus())) {
+                summary.setFinalCount(totals.getFileCount());
+                summary.setFinalBytes(totals.getTotalBytes());
+            }
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
     // ✓ 4. When case is submitted → convert TEMP → FINAL
     @Transactional
     public void finalizeFiles(Long caseId) {
         metadataRepository.updateStatusByCaseId(caseId, FileStatus.FINAL.name());
     }
 
-    // ✓ 5. Delete file (optional)
+    // ✓ 5. Delete file (optional) - the blob goes only when its last reference does
     @Transactional
     public void deleteFile(Long metadataId) {
         FileMetadata meta = metadataRepository.findById(metadataId)
                 .orElseThrow(() -> new RuntimeException("File metadata not found with id: " + metadataId));
 
-        docRepository.deleteById(meta.getDocId());
+        // Flush first: deleting the doc would otherwise cascade to this row before Hibernate does
         metadataRepository.delete(meta);
+        metadataRepository.flush();
+        docContentRepository.release(meta.getDocId());
     }
 }
@@ -0,0 +1,86 @@
+package com.rohit.file.service;
+
+import com.rohit.file.dto.UploadSession;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The staged chunks of a completed upload seen as one MultipartFile, so the
+ * regular upload path (hashing, dedup, compression, blob stores) handles it.
+ * Every getInputStream() reads the chunk files in order; nothing is buffered.
+ */
+class StagedUploadFile implements MultipartFile {
+
+    private final UploadSession session;
+    private final List<Path> chunks;
+
+    StagedUploadFile(UploadSession session, List<Path> chunks) {
+        this.session = session;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return session.getFileName();
+    }
+
+    @Override
+    public String getContentType() {
+        return session.getContentType();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return session.getTotalSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return session.getTotalSize();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        try (InputStream in = getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        List<InputStream> streams = new ArrayList<>(chunks.size());
+        try {
+            for (Path chunk : chunks) {
+                streams.add(Files.newInputStream(chunk));
+            }
+        } catch (IOException e) {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+            throw e;
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        try (InputStream in = getInputStream(); OutputStream out = Files.newOutputStream(dest.toPath())) {
+            in.transferTo(out);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.rohit.file.service;
+
+import com.rohit.file.repo.DocContentRepository;
+import com.rohit.file.repo.TempFileRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Removes TEMP uploads whose case never got created.
+ * Uploads sent without a case id are deleted once stale. Uploads sent with
+ * one are checked against data-service first: the case may exist and only
+ * the best-effort finalize was missed, so those are finalized, and only
+ * ids data-service confirms missing are deleted.
+ * Works through stale rows in small keyset-paginated batches, each in its
+ * own short transaction, and backs off while the connection pool is busy
+ * so it never competes with request traffic.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "file.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class TempFileSweeper {
+
+    private final TempFileRepository tempFileRepository;
+    private final DocContentRepository docContentRepository;
+    private final CaseExistenceService caseExistenceService;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private final Duration maxAge;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final double maxPoolUsage;
+
+    private final Counter metadataRowsDeleted;
+    private final Counter metadataRowsFinalized;
+    private final Counter docRowsDeleted;
+    private final Counter bytesReclaimed;
+    private final Counter pausedRuns;
+
+    public TempFileSweeper(TempFileRepository tempFileRepository,
+                           DocContentRepository docContentRepository,
+                           CaseExistenceService caseExistenceService,
+                           PlatformTransactionManager transactionManager,
+                           DataSource dataSource,
+                           MeterRegistry meterRegistry,
+                           @Value("${file.sweeper.max-age:7d}") Duration maxAge,
+                           @Value("${file.sweeper.batch-size:200}") int batchSize,
+                           @Value("${file.sweeper.max-batches-per-run:50}") int maxBatchesPerRun,
+                           @Value("${file.sweeper.max-pool-usage:0.5}") double maxPoolUsage) {
+        this.tempFileRepository = tempFileRepository;
+        this.docContentRepository = docContentRepository;
+        this.caseExistenceService = caseExistenceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSource = dataSource;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxPoolUsage = maxPoolUsage;
+
+        this.metadataRowsDeleted = meterRegistry.counter("file.sweeper.rows", "table", "file_metadata");
+        this.metadataRowsFinalized = meterRegistry.counter("file.sweeper.finalized");
+        this.docRowsDeleted = meterRegistry.counter("file.sweeper.rows", "table", "doc");
+        this.bytesReclaimed = meterRegistry.counter("file.sweeper.bytes");
+        this.pausedRuns = meterRegistry.counter("file.sweeper.paused");
+    }
+
+    @Scheduled(fixedDelayString = "${file.sweeper.interval-ms:300000}",
+               initialDelayString = "${file.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        int batches = 0;
+
+        // Uploads that never named a case
+        long afterId = 0;
+        while (batches < maxBatchesPerRun) {
+            if (paused()) {
+                return;
+            }
+            List<Long> staleIds = tempFileRepository.findStaleOrphanIds(cutoff, afterId, batchSize);
+            if (staleIds.isEmpty()) {
+                break;
+            }
+            afterId = staleIds.get(staleIds.size() - 1);
+            batches++;
+            transactionTemplate.executeWithoutResult(status -> deleteBatch(staleIds));
+        }
+
+        // Uploads for a case id: finalize the ones whose case exists, delete the confirmed misses
+        afterId = 0;
+        while (batches < maxBatchesPerRun) {
+            if (paused()) {
+                return;
+            }
+            List<TempFileRepository.TempFile> stale = tempFileRepository.findStaleWithCase(cutoff, afterId, batchSize);
+            if (stale.isEmpty()) {
+                return;
+            }
+            afterId = stale.get(stale.size() - 1).id();
+            batches++;
+
+            Map<Long, Boolean> caseExists;
+            try {
+                caseExists = caseExistenceService.casesExist(
+                        stale.stream().map(TempFileRepository.TempFile::caseId).distinct().toList());
+            } catch (RuntimeException e) {
+                log.warn("TEMP sweep stopped: could not check cases with data-service: {}", e.getMessage());
+                return;
+            }
+
+            List<Long> toFinalize = new ArrayList<>();
+            List<Long> toDelete = new ArrayList<>();
+            for (TempFileRepository.TempFile file : stale) {
+                Boolean exists = caseExists.get(file.caseId());
+                if (Boolean.TRUE.equals(exists)) {
+                    toFinalize.add(file.id());
+                } else if (Boolean.FALSE.equals(exists)) {
+                    toDelete.add(file.id());
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!toFinalize.isEmpty()) {
+                    int finalized = tempFileRepository.finalizeStillTemp(toFinalize);
+                    metadataRowsFinalized.increment(finalized);
+                    log.info("Finalized {} TEMP files of existing cases", finalized);
+                }
+                deleteBatch(toDelete);
+            });
+        }
+    }
+
+    private void deleteBatch(List<Long> staleIds) {
+        if (staleIds.isEmpty()) {
+            return;
+        }
+        List<Long> docIds = tempFileRepository.deleteStillTemp(staleIds);
+        if (docIds.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent writers lock doc rows in the same order
+        Map<Long, Integer> references = new TreeMap<>();
+        docIds.forEach(docId -> references.merge(docId, 1, Integer::sum));
+        List<Long> freedLengths = docContentRepository.releaseAll(references);
+
+        long bytes = freedLengths.stream().mapToLong(Long::longValue).sum();
+        metadataRowsDeleted.increment(docIds.size());
+        docRowsDeleted.increment(freedLengths.size());
+        bytesReclaimed.increment(bytes);
+        log.info("Swept {} TEMP files, {} docs, {} bytes", docIds.size(), freedLengths.size(), bytes);
+    }
+
+    private boolean paused() {
+        if (underLoad()) {
+            pausedRuns.increment();
+            log.debug("TEMP sweep paused: connection pool busy");
+            return true;
+        }
+        return false;
+    }
+
+    // Busy = someone is already waiting for a connection, or usage is above the threshold
+    private boolean underLoad() {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return false;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return pool.getThreadsAwaitingConnection() > 0
+                || pool.getActiveConnections() >= hikari.getMaximumPoolSize() * maxPoolUsage;
+    }
+}
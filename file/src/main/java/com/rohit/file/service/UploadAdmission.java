@@ -0,0 +1,161 @@
+package com.rohit.file.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for uploads. Concurrent uploads and in-flight upload
+ * bytes are limited separately; a request that cannot start right away
+ * waits in a short bounded queue and is rejected fast once the queue is
+ * full or its wait runs out. Upload concurrency is capped below the
+ * connection pool size so reads always find a free connection.
+ */
+@Slf4j
+@Service
+public class UploadAdmission {
+
+    public enum Rejection {
+        QUEUE_FULL,     // too many uploads already waiting
+        TIMEOUT         // waited max-wait without getting capacity
+    }
+
+    // Permit held by an admitted upload; must be closed when the upload finishes
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final int maxConcurrent;
+    private final int byteBudgetKb;
+    private final int maxQueue;
+    private final Duration maxWait;
+
+    private final Semaphore slots;
+    private final Semaphore bytesKb;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Timer waitTime;
+
+    public UploadAdmission(DataSource dataSource,
+                           MeterRegistry meterRegistry,
+                           @Value("${file.admission.upload.max-concurrent:6}") int maxConcurrent,
+                           @Value("${file.admission.upload.max-in-flight:512MB}") DataSize maxInFlight,
+                           @Value("${file.admission.upload.max-queue:20}") int maxQueue,
+                           @Value("${file.admission.upload.max-wait:2s}") Duration maxWait,
+                           @Value("${file.admission.reserved-read-connections:4}") int reservedReadConnections) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            int available = Math.max(1, hikari.getMaximumPoolSize() - reservedReadConnections);
+            if (available < maxConcurrent) {
+                log.info("Upload concurrency capped at {} to keep {} connections for reads",
+                        available, reservedReadConnections);
+                maxConcurrent = available;
+            }
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.byteBudgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxInFlight.toKilobytes()));
+        this.maxQueue = maxQueue;
+        this.maxWait = maxWait;
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.bytesKb = new Semaphore(byteBudgetKb, true);
+
+        this.rejectedQueueFull = meterRegistry.counter("file.admission.rejected", "reason", "queue_full");
+        this.rejectedTimeout = meterRegistry.counter("file.admission.rejected", "reason", "timeout");
+        this.waitTime = Timer.builder("file.admission.wait")
+                .description("Time uploads waited for admission")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("file.admission.queue", waiting, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("file.admission.active", slots, s -> this.maxConcurrent - s.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("file.admission.in.flight.bytes", bytesKb, s -> (byteBudgetKb - s.availablePermits()) * 1024.0)
+                .register(meterRegistry);
+    }
+
+    // Admit an upload of about `bytes` bytes, waiting up to max-wait; throws when rejected
+    public Permit admit(long bytes) throws UploadRejectedException {
+        // Anything bigger than the whole budget may still run, just alone
+        int kb = (int) Math.min(byteBudgetKb, Math.max(1, (bytes + 1023) / 1024));
+
+        if (slots.tryAcquire()) {
+            if (bytesKb.tryAcquire(kb)) {
+                return permit(kb);
+            }
+            slots.release();
+        }
+
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new UploadRejectedException(Rejection.QUEUE_FULL);
+        }
+        long started = System.nanoTime();
+        long deadline = started + maxWait.toNanos();
+        try {
+            if (!slots.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                rejectedTimeout.increment();
+                throw new UploadRejectedException(Rejection.TIMEOUT);
+            }
+            if (!bytesKb.tryAcquire(kb, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                slots.release();
+                rejectedTimeout.increment();
+                throw new UploadRejectedException(Rejection.TIMEOUT);
+            }
+            return permit(kb);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UploadRejectedException(Rejection.TIMEOUT);
+        } finally {
+            waiting.decrementAndGet();
+            waitTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Suggested client back-off: one full wait window
+    public Duration retryAfter() {
+        return maxWait.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : maxWait;
+    }
+
+    private Permit permit(int kb) {
+        return new Permit() {
+            private boolean released;
+
+            @Override
+            public synchronized void close() {
+                if (!released) {
+                    released = true;
+                    bytesKb.release(kb);
+                    slots.release();
+                }
+            }
+        };
+    }
+
+    public static class UploadRejectedException extends Exception {
+
+        private final Rejection reason;
+
+        public UploadRejectedException(Rejection reason) {
+            super("Upload rejected: " + reason);
+            this.reason = reason;
+        }
+
+        public Rejection getReason() {
+            return reason;
+        }
+    }
+}
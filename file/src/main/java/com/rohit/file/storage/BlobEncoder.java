@@ -0,0 +1,96 @@
+package com.rohit.file.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decides how an upload is stored. Compressible content types (text, CSV,
+ * JSON, legacy office formats...) are gzipped into a temp file first and
+ * kept compressed if that saves enough; images, archives, PDFs and other
+ * already-compressed types are stored as-is.
+ */
+@Component
+public class BlobEncoder {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final List<MimeType> compressibleTypes;
+    private final long minSize;
+    private final double minSavings;
+
+    private final Counter originalBytes;
+    private final Counter storedBytes;
+    private final Timer compressionTime;
+
+    public BlobEncoder(MeterRegistry meterRegistry,
+                       @Value("${file.compression.types}") List<String> compressibleTypes,
+                       @Value("${file.compression.min-size:1024}") long minSize,
+                       @Value("${file.compression.min-savings:0.1}") double minSavings) {
+        this.compressibleTypes = compressibleTypes.stream().map(MimeTypeUtils::parseMimeType).toList();
+        this.minSize = minSize;
+        this.minSavings = minSavings;
+
+        this.originalBytes = meterRegistry.counter("file.compression.bytes", "stage", "original");
+        this.storedBytes = meterRegistry.counter("file.compression.bytes", "stage", "stored");
+        this.compressionTime = meterRegistry.timer("file.compression.time");
+    }
+
+    public PendingBlob prepare(MultipartFile file, String contentHash, int refCount) throws IOException {
+        long length = file.getSize();
+        PendingBlob raw = new PendingBlob(contentHash, length, length, null, refCount, file);
+        if (length < minSize || !isCompressible(file.getContentType())) {
+            return raw;
+        }
+
+        Path compressed = Files.createTempFile("doc-", ".gz");
+        long started = System.nanoTime();
+        try (InputStream in = file.getInputStream();
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(compressed);
+            throw e;
+        }
+        compressionTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        long compressedLength = Files.size(compressed);
+        originalBytes.increment(length);
+        if (compressedLength > length * (1 - minSavings)) {
+            Files.deleteIfExists(compressed);
+            storedBytes.increment(length);
+            return raw;
+        }
+        storedBytes.increment(compressedLength);
+        return new PendingBlob(contentHash, length, compressedLength, GZIP, refCount, new CompressedContent(compressed));
+    }
+
+    // Whether compressing this content type is worth the CPU (also used for ZIP entries)
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MimeType type = MimeTypeUtils.parseMimeType(contentType);
+            return compressibleTypes.stream().anyMatch(allowed -> allowed.includes(type));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
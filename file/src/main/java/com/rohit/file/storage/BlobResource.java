@@ -0,0 +1,91 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Doc content exposed as a Spring Resource, whatever store holds it.
+ * Implementations must make skip() cheap: Spring MVC's Range support
+ * (single and multipart/byteranges) skips to each requested slice.
+ * Compressed docs are inflated on read; encoded() serves the stored bytes
+ * as they are, for clients that accept the doc's codec.
+ */
+public abstract class BlobResource extends AbstractResource {
+
+    private static final int INFLATE_BUFFER_SIZE = 65536;
+
+    protected final DocContentInfo info;
+
+    protected BlobResource(DocContentInfo info) {
+        this.info = info;
+    }
+
+    public DocContentInfo getInfo() {
+        return info;
+    }
+
+    @Override
+    public String getDescription() {
+        return "doc [" + info.getDocId() + "] in " + info.getStorage();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return info.getContentLength();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        InputStream stored = openStored();
+        return info.isCompressed() ? new GZIPInputStream(stored, INFLATE_BUFFER_SIZE) : stored;
+    }
+
+    // The bytes exactly as stored (storedLength of them), with a cheap skip()
+    public abstract InputStream openStored() throws IOException;
+
+    // Stored bytes as their own resource; only meaningful to send with Content-Encoding
+    public Resource encoded() {
+        return new AbstractResource() {
+            @Override
+            public String getDescription() {
+                return BlobResource.this.getDescription() + " (" + info.getCodec() + ")";
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public long contentLength() {
+                return info.getStoredLength();
+            }
+
+            @Override
+            public long lastModified() {
+                return BlobResource.this.lastModified();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return openStored();
+            }
+        };
+    }
+
+    @Override
+    public long lastModified() {
+        return info.getUploadedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
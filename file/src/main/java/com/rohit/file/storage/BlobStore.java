@@ -0,0 +1,29 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where doc bytes live. The doc row stays the index in every store
+ * (hash, ref_count, length, location); only the bytes move.
+ */
+public interface BlobStore {
+
+    StorageType type();
+
+    // Largest blob (in stored bytes) a single doc in this store can hold
+    long maxBlobSize();
+
+    // Store the blob as a new doc and return its id. If a doc with the same
+    // hash appeared concurrently, that doc gets the references instead.
+    Long store(PendingBlob blob, String uploadedBy) throws IOException;
+
+    // Store several new docs in as few statements as the store allows. Hashes that appeared
+    // concurrently get the blob's refCount added instead; look ids up by hash afterwards.
+    void storeBatch(List<PendingBlob> blobs, String uploadedBy) throws IOException;
+
+    // Lazy view of a doc held by this store; nothing is read until the stream is consumed
+    BlobResource load(DocContentInfo doc);
+}
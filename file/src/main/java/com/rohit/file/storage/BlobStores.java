@@ -0,0 +1,43 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * New uploads go to the store selected by file.storage.type; reads follow
+ * the doc's own storage column, so both stores can be live at once while
+ * docs are migrated.
+ */
+@Component
+public class BlobStores {
+
+    private final Map<StorageType, BlobStore> stores = new EnumMap<>(StorageType.class);
+    private final BlobStore writeStore;
+
+    public BlobStores(List<BlobStore> blobStores,
+                      @Value("${file.storage.type:DB}") StorageType writeType) {
+        blobStores.forEach(store -> stores.put(store.type(), store));
+        this.writeStore = stores.get(writeType);
+        if (writeStore == null) {
+            throw new IllegalStateException("file.storage.type=" + writeType + " but that store is not configured");
+        }
+    }
+
+    public BlobStore forWrite() {
+        return writeStore;
+    }
+
+    public BlobStore forDoc(DocContentInfo doc) {
+        BlobStore store = stores.get(StorageType.valueOf(doc.getStorage()));
+        if (store == null) {
+            throw new IllegalStateException("Doc " + doc.getDocId() + " is in " + doc.getStorage()
+                    + " storage, which is not configured on this instance");
+        }
+        return store;
+    }
+}
@@ -0,0 +1,34 @@
+package com.rohit.file.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Temporary file holding the compressed form of an upload until it is stored
+@Slf4j
+public class CompressedContent implements InputStreamSource {
+
+    private final Path file;
+
+    public CompressedContent(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    // Best effort: a leftover temp file must not fail an upload that was already stored
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}: {}", file, e.getMessage());
+        }
+    }
+}
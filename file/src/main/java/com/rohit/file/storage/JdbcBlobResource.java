@@ -0,0 +1,133 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * DB-stored doc content.
+ * Bytes are pulled from doc.content one chunk at a time while the response
+ * is written, and skip() moves the offset without reading, so Range requests
+ * only fetch the requested slices. If BlobMigrationJob moves the doc to a
+ * segment mid-read, the rest is read from the segment copy.
+ */
+public class JdbcBlobResource extends BlobResource {
+
+    private final DocContentRepository docContentRepository;
+    private final SegmentBlobStore segmentStore;     // null when the segment store is not configured
+    private final int chunkSize;
+
+    public JdbcBlobResource(DocContentInfo info, DocContentRepository docContentRepository,
+                            SegmentBlobStore segmentStore, int chunkSize) {
+        super(info);
+        this.docContentRepository = docContentRepository;
+        this.segmentStore = segmentStore;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public InputStream openStored() {
+        return new ChunkedInputStream();
+    }
+
+    private class ChunkedInputStream extends InputStream {
+
+        private long position;
+        private byte[] chunk = new byte[0];
+        private int chunkPos;
+        private InputStream moved;      // the segment copy, once the row's content is gone
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return chunk[chunkPos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.length - chunkPos);
+            System.arraycopy(chunk, chunkPos, b, off, n);
+            chunkPos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            long buffered = chunk.length - chunkPos;
+            if (n <= buffered) {
+                chunkPos += (int) n;
+                return n;
+            }
+            // Drop the current chunk and jump; the next read fetches from the new offset
+            long skipped = Math.min(n, buffered + info.getStoredLength() - position);
+            position += skipped - buffered;
+            if (moved != null) {
+                moved.skipNBytes(skipped - buffered);
+            }
+            chunk = new byte[0];
+            chunkPos = 0;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - chunkPos;
+        }
+
+        private boolean fill() throws IOException {
+            if (chunkPos < chunk.length) {
+                return true;
+            }
+            if (position >= info.getStoredLength()) {
+                return false;
+            }
+            int length = (int) Math.min(chunkSize, info.getStoredLength() - position);
+            chunk = moved == null ? docContentRepository.readChunk(info.getDocId(), position, length).orElse(null) : null;
+            if (chunk == null) {
+                if (moved == null) {
+                    moved = openMoved();
+                }
+                chunk = moved.readNBytes(length);
+            }
+            if (chunk.length == 0) {
+                return false;
+            }
+            chunkPos = 0;
+            position += chunk.length;
+            return true;
+        }
+
+        // No content in the row: the doc is gone, or its bytes moved to a segment at the same offsets
+        private InputStream openMoved() throws IOException {
+            DocContentInfo current = docContentRepository.findInfo(info.getDocId())
+                    .orElseThrow(() -> new IOException("Document " + info.getDocId() + " was deleted while reading"));
+            if (!StorageType.SEGMENT.name().equals(current.getStorage()) || segmentStore == null) {
+                throw new IOException("Document " + info.getDocId() + " moved to " + current.getStorage()
+                        + " storage while reading");
+            }
+            InputStream in = segmentStore.load(current).openStored();
+            in.skipNBytes(position);
+            return in;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (moved != null) {
+                moved.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+
+// Bytes in doc.content (BYTEA), streamed in and read back with substring()
+@Component
+public class JdbcBlobStore implements BlobStore {
+
+    // PostgreSQL caps one field value at 1 GB, including its 4-byte header
+    static final long MAX_BLOB_SIZE = (1L << 30) - 4;
+
+    private final DocContentRepository docContentRepository;
+    private final ObjectProvider<SegmentBlobStore> segmentStore;   // for reads that outlive a migration
+    private final int downloadChunkSize;
+
+    public JdbcBlobStore(DocContentRepository docContentRepository,
+                         ObjectProvider<SegmentBlobStore> segmentStore,
+                         @Value("${file.download.chunk-size:262144}") int downloadChunkSize) {
+        this.docContentRepository = docContentRepository;
+        this.segmentStore = segmentStore;
+        this.downloadChunkSize = downloadChunkSize;
+    }
+
+    @Override
+    public StorageType type() {
+        return StorageType.DB;
+    }
+
+    @Override
+    public long maxBlobSize() {
+        return MAX_BLOB_SIZE;
+    }
+
+    @Override
+    public Long store(PendingBlob blob, String uploadedBy) throws IOException {
+        return docContentRepository.insert(blob, uploadedBy);
+    }
+
+    @Override
+    public void storeBatch(List<PendingBlob> blobs, String uploadedBy) throws IOException {
+        docContentRepository.insertBatch(blobs, uploadedBy);
+    }
+
+    @Override
+    public BlobResource load(DocContentInfo doc) {
+        return new JdbcBlobResource(doc, docContentRepository, segmentStore.getIfAvailable(), downloadChunkSize);
+    }
+}
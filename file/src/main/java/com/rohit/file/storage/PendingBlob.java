@@ -0,0 +1,23 @@
+package com.rohit.file.storage;
+
+import org.springframework.core.io.InputStreamSource;
+
+/**
+ * New content waiting to be written, already encoded by BlobEncoder.
+ * `content` yields the storedLength bytes to write; refCount is the number
+ * of uploads sharing this content.
+ */
+public record PendingBlob(String contentHash,
+                          long contentLength,
+                          long storedLength,
+                          String codec,
+                          int refCount,
+                          InputStreamSource content) {
+
+    // Delete the temporary compressed copy, if there is one
+    public void discard() {
+        if (content instanceof CompressedContent compressed) {
+            compressed.delete();
+        }
+    }
+}
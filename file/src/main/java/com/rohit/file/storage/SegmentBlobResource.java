@@ -0,0 +1,96 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Segment-stored doc content, read through memory-mapped windows of the
+ * segment file. skip() just moves the position, so ranges cost no I/O
+ * outside the requested slices.
+ */
+public class SegmentBlobResource extends BlobResource {
+
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private final SegmentBlobStore store;
+
+    public SegmentBlobResource(DocContentInfo info, SegmentBlobStore store) {
+        super(info);
+        this.store = store;
+    }
+
+    @Override
+    public InputStream openStored() throws IOException {
+        return new MappedInputStream(store.readChannel(info.getSegmentId()));
+    }
+
+    private class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private MappedByteBuffer window;
+
+        MappedInputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            if (n <= 0) {
+                return 0;
+            }
+            long buffered = window == null ? 0 : window.remaining();
+            if (n <= buffered) {
+                window.position(window.position() + (int) n);
+                return n;
+            }
+            long skipped = Math.min(n, buffered + info.getStoredLength() - position);
+            position += skipped - buffered;
+            window = null;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return window == null ? 0 : window.remaining();
+        }
+
+        private boolean fill() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (position >= info.getStoredLength()) {
+                return false;
+            }
+            long length = Math.min(MAP_WINDOW, info.getStoredLength() - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, info.getSegmentOffset() + position, length);
+            position += length;
+            return true;
+        }
+    }
+}
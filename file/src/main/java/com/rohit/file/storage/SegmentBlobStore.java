@@ -0,0 +1,257 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Bytes appended to large segment files on local disk (segment-N.dat).
+ * Space is reserved under a short lock and written with positional writes,
+ * so concurrent uploads append in parallel. Reads map the blob's region of
+ * the segment. Deleted docs leave dead space that SegmentCompactor reclaims.
+ *
+ * A reservation stays open until the doc row pointing at it is committed
+ * (or its writer gave up). Until then the row is invisible to other
+ * transactions, so SegmentCompactor leaves segments with open reservations
+ * alone instead of mistaking the bytes for dead space.
+ */
+@Component
+@ConditionalOnProperty(prefix = "file.storage.segment", name = "dir")
+public class SegmentBlobStore implements BlobStore {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+    private static final int COPY_BUFFER_SIZE = 65536;
+
+    private final Path dir;
+    private final long maxSegmentSize;
+    private final DocContentRepository docContentRepository;
+    private final Map<Long, FileChannel> channels = new ConcurrentHashMap<>();
+
+    private final Object appendLock = new Object();
+    private long activeSegmentId;
+    private long activeSegmentEnd;      // reserved bytes, may be ahead of what is written
+    private final Map<Long, Integer> openReservations = new HashMap<>();    // guarded by appendLock
+
+    public SegmentBlobStore(@Value("${file.storage.segment.dir}") Path dir,
+                            @Value("${file.storage.segment.max-size:1073741824}") long maxSegmentSize,
+                            DocContentRepository docContentRepository) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.maxSegmentSize = maxSegmentSize;
+        this.docContentRepository = docContentRepository;
+
+        List<Long> existing = segmentIds();
+        this.activeSegmentId = existing.isEmpty() ? 1 : existing.get(existing.size() - 1);
+        Path active = segmentPath(activeSegmentId);
+        this.activeSegmentEnd = Files.exists(active) ? Files.size(active) : 0;
+    }
+
+    public record Location(long segmentId, long offset) {
+    }
+
+    @Override
+    public StorageType type() {
+        return StorageType.SEGMENT;
+    }
+
+    // A blob larger than max-size simply gets a segment of its own
+    @Override
+    public long maxBlobSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public Long store(PendingBlob blob, String uploadedBy) throws IOException {
+        Location location;
+        try (InputStream in = blob.content().getInputStream()) {
+            location = append(in, blob.storedLength());
+        }
+        try {
+            return docContentRepository.insertSegment(blob, location, uploadedBy);
+        } finally {
+            releaseAfterCompletion(List.of(location));
+        }
+    }
+
+    @Override
+    public void storeBatch(List<PendingBlob> blobs, String uploadedBy) throws IOException {
+        List<Location> locations = new ArrayList<>(blobs.size());
+        try {
+            for (PendingBlob blob : blobs) {
+                try (InputStream in = blob.content().getInputStream()) {
+                    locations.add(append(in, blob.storedLength()));
+                }
+            }
+            docContentRepository.insertSegmentBatch(blobs, locations, uploadedBy);
+        } finally {
+            releaseAfterCompletion(locations);
+        }
+    }
+
+    @Override
+    public BlobResource load(DocContentInfo doc) {
+        return new SegmentBlobResource(doc, this);
+    }
+
+    // Append exactly `length` bytes to the active segment and fsync them.
+    // The reservation stays open until the caller passes the location to release().
+    public Location append(InputStream content, long length) throws IOException {
+        long segmentId;
+        long offset;
+        synchronized (appendLock) {
+            if (activeSegmentEnd > 0 && activeSegmentEnd + length > maxSegmentSize) {
+                activeSegmentId++;
+                activeSegmentEnd = 0;
+            }
+            segmentId = activeSegmentId;
+            offset = activeSegmentEnd;
+            activeSegmentEnd += length;
+            openReservations.merge(segmentId, 1, Integer::sum);
+        }
+
+        try {
+            write(segmentId, offset, content, length);
+        } catch (IOException | RuntimeException e) {
+            release(new Location(segmentId, offset));
+            throw e;
+        }
+        return new Location(segmentId, offset);
+    }
+
+    // The doc row pointing at this location is committed, or will never be
+    public void release(Location location) {
+        synchronized (appendLock) {
+            openReservations.computeIfPresent(location.segmentId(), (id, open) -> open > 1 ? open - 1 : null);
+        }
+    }
+
+    // Release once the current transaction ends (either way), or now if there is none
+    public void releaseAfterCompletion(List<Location> locations) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            locations.forEach(this::release);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                locations.forEach(SegmentBlobStore.this::release);
+            }
+        });
+    }
+
+    // True while some appended bytes in the segment may belong to a doc row not yet committed
+    public boolean hasOpenReservations(long segmentId) {
+        synchronized (appendLock) {
+            return openReservations.containsKey(segmentId);
+        }
+    }
+
+    private void write(long segmentId, long offset, InputStream content, long length) throws IOException {
+        FileChannel channel = writeChannel(segmentId);
+        ReadableByteChannel source = Channels.newChannel(content);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            int n = source.read(buffer);
+            if (n < 0) {
+                // Reserved space stays as dead bytes; compaction will drop it
+                throw new EOFException("Upload ended " + remaining + " bytes early");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            remaining -= n;
+        }
+        channel.force(false);
+    }
+
+    // Open channel for reading an existing segment; never creates the file
+    FileChannel readChannel(long segmentId) throws IOException {
+        FileChannel channel = channels.get(segmentId);
+        if (channel != null) {
+            return channel;
+        }
+        if (!Files.exists(segmentPath(segmentId))) {
+            throw new FileNotFoundException("Segment " + segmentId + " does not exist");
+        }
+        return writeChannel(segmentId);
+    }
+
+    private FileChannel writeChannel(long segmentId) throws IOException {
+        try {
+            return channels.computeIfAbsent(segmentId, id -> {
+                try {
+                    return FileChannel.open(segmentPath(id),
+                            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Segments no longer written to, oldest first
+    public List<Long> sealedSegmentIds() throws IOException {
+        long active;
+        synchronized (appendLock) {
+            active = activeSegmentId;
+        }
+        return segmentIds().stream().filter(id -> id < active).toList();
+    }
+
+    public long segmentSize(long segmentId) throws IOException {
+        return Files.size(segmentPath(segmentId));
+    }
+
+    // Only call once no doc row points into the segment and in-flight reads are done
+    public void deleteSegment(long segmentId) throws IOException {
+        FileChannel channel = channels.remove(segmentId);
+        if (channel != null) {
+            channel.close();
+        }
+        Files.deleteIfExists(segmentPath(segmentId));
+    }
+
+    private List<Long> segmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> Long.parseLong(m.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return dir.resolve("segment-" + segmentId + ".dat");
+    }
+}
@@ -0,0 +1,96 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reclaims dead space in sealed segments. When the live share of a segment
+ * drops below the threshold, its live docs are copied to the active segment
+ * and the old file is deleted on the following run, after in-flight reads
+ * of the old location have had time to finish. Segments with open
+ * reservations are skipped: their uncommitted doc rows would not be
+ * counted as live.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "file.storage.segment", name = "dir")
+public class SegmentCompactor {
+
+    private final SegmentBlobStore store;
+    private final DocContentRepository docContentRepository;
+    private final double liveThreshold;
+    private final int batchSize;
+    private final List<Long> retiredSegments = new ArrayList<>();
+
+    public SegmentCompactor(SegmentBlobStore store,
+                            DocContentRepository docContentRepository,
+                            @Value("${file.storage.segment.compaction-live-threshold:0.5}") double liveThreshold,
+                            @Value("${file.storage.segment.compaction-batch-size:100}") int batchSize) {
+        this.store = store;
+        this.docContentRepository = docContentRepository;
+        this.liveThreshold = liveThreshold;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${file.storage.segment.compaction-interval-ms:600000}")
+    public synchronized void compact() {
+        try {
+            for (Long segmentId : retiredSegments) {
+                store.deleteSegment(segmentId);
+            }
+            retiredSegments.clear();
+
+            for (Long segmentId : store.sealedSegmentIds()) {
+                // Checked before reading live bytes: once it is clear, every writer's row is visible
+                if (store.hasOpenReservations(segmentId)) {
+                    log.debug("Segment {} still has uncommitted writes; not compacting it yet", segmentId);
+                    continue;
+                }
+                long size = store.segmentSize(segmentId);
+                long live = docContentRepository.liveSegmentBytes(segmentId);
+                if (size == 0 || (double) live / size < liveThreshold) {
+                    int moved = moveLiveDocs(segmentId);
+                    retiredSegments.add(segmentId);
+                    log.info("Compacted segment {}: {} docs / {} of {} bytes kept", segmentId, moved, live, size);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Segment compaction failed", e);
+        }
+    }
+
+    private int moveLiveDocs(long segmentId) throws IOException {
+        int moved = 0;
+        long afterId = 0;
+        List<DocContentInfo> batch;
+        do {
+            batch = docContentRepository.findBySegment(segmentId, afterId, batchSize);
+            for (DocContentInfo doc : batch) {
+                SegmentBlobStore.Location target;
+                try (InputStream in = store.load(doc).openStored()) {
+                    target = store.append(in, doc.getStoredLength());
+                }
+                // Loses only if the doc was deleted meanwhile; the copy becomes dead space
+                try {
+                    if (docContentRepository.relocate(doc, target.segmentId(), target.offset())) {
+                        moved++;
+                    }
+                } finally {
+                    store.release(target);
+                }
+                afterId = doc.getDocId();
+            }
+        } while (batch.size() == batchSize);
+        return moved;
+    }
+}
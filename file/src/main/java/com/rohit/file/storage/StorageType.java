@@ -0,0 +1,6 @@
+package com.rohit.file.storage;
+
+public enum StorageType {
+    DB,         // doc.content BYTEA
+    SEGMENT     // append-only segment files on local disk
+}
@@ -0,0 +1,126 @@
+package com.rohit.file.config;
+
+import com.rohit.file.service.UploadAdmission;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadAdmissionFilterTests {
+
+    private final List<UploadAdmission.Permit> held = new ArrayList<>();
+    private final HikariDataSource pool = new HikariDataSource();   // never connects; only its size is read
+
+    @AfterEach
+    void release() {
+        held.forEach(UploadAdmission.Permit::close);
+        pool.close();
+    }
+
+    @Test
+    void fullQueueIsServiceUnavailableWithRetryAfter() throws Exception {
+        UploadAdmission admission = admission(1, DataSize.ofMegabytes(64), 0, Duration.ofSeconds(3));
+        held.add(admission.admit(1024));
+
+        MockHttpServletResponse response = filter(admission, upload(1024));
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    @Test
+    void waitingPastMaxWaitIsTooManyRequestsWithRetryAfter() throws Exception {
+        UploadAdmission admission = admission(1, DataSize.ofMegabytes(64), 5, Duration.ofMillis(100));
+        held.add(admission.admit(1024));
+
+        MockHttpServletResponse response = filter(admission, upload(1024));
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        // Never less than a second, so clients do not spin
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void uploadsAreChargedTheirContentLength() throws Exception {
+        UploadAdmission admission = admission(4, DataSize.ofKilobytes(100), 5, Duration.ofMillis(100));
+        held.add(admission.admit(80 * 1024));
+
+        // A free slot is not enough when the bytes would exceed the budget
+        assertThat(filter(admission, upload(40 * 1024)).getStatus()).isEqualTo(429);
+        assertThat(filter(admission, upload(10 * 1024)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void uploadWithoutContentLengthIsRefusedBeforeAdmission() throws Exception {
+        UploadAdmission admission = admission(1, DataSize.ofMegabytes(64), 0, Duration.ofMillis(100));
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/file/upload");
+
+        MockHttpServletResponse response = filter(admission, chunked);
+
+        assertThat(response.getStatus()).isEqualTo(411);
+        // It took no slot: the only one is still free
+        held.add(admission.admit(1024));
+    }
+
+    @Test
+    void completeHasNoBodyAndOtherEndpointsPassThrough() throws Exception {
+        UploadAdmission admission = admission(1, DataSize.ofMegabytes(64), 0, Duration.ofMillis(100));
+        held.add(admission.admit(1024));
+
+        MockHttpServletRequest complete = new MockHttpServletRequest("POST",
+                "/file/upload/sessions/0b6c7f8e-1d2a-4c3b-9e8f-7a6b5c4d3e2f/complete");
+        assertThat(filter(admission, complete).getStatus()).isEqualTo(503);
+        assertThat(filter(admission, new MockHttpServletRequest("GET", "/file/case/7")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void readConnectionsAreKeptOutOfUploadConcurrency() throws Exception {
+        // 10 connections, 8 reserved for reads: only 2 uploads at once, although 6 are configured
+        UploadAdmission admission = admission(6, DataSize.ofMegabytes(64), 0, Duration.ofMillis(100), 8);
+        held.add(admission.admit(1));
+        held.add(admission.admit(1));
+
+        assertThatThrownBy(() -> admission.admit(1))
+                .isInstanceOfSatisfying(UploadAdmission.UploadRejectedException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(UploadAdmission.Rejection.QUEUE_FULL));
+
+        held.remove(0).close();
+        held.add(admission.admit(1));
+    }
+
+    private UploadAdmission admission(int maxConcurrent, DataSize maxInFlight, int maxQueue, Duration maxWait) {
+        return admission(maxConcurrent, maxInFlight, maxQueue, maxWait, 4);
+    }
+
+    private UploadAdmission admission(int maxConcurrent, DataSize maxInFlight, int maxQueue, Duration maxWait,
+                                      int reservedReadConnections) {
+        pool.setMaximumPoolSize(10);
+        return new UploadAdmission(pool, new SimpleMeterRegistry(), maxConcurrent, maxInFlight,
+                maxQueue, maxWait, reservedReadConnections);
+    }
+
+    private static MockHttpServletRequest upload(int bytes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/file/upload");
+        request.setContent(new byte[bytes]);
+        return request;
+    }
+
+    private static MockHttpServletResponse filter(UploadAdmission admission, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new UploadAdmissionFilter(admission).doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,177 @@
+package com.rohit.file.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A small download chunk size so every response spans several chunk reads
+@SpringBootTest(properties = "file.download.chunk-size=7")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileContentDownloadTests {
+
+    private static final byte[] TEXT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+    private static final LocalDateTime UPLOADED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void fullDownloadCarriesValidators() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        mockMvc.perform(get("/file/content/{docId}", docId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash-plain\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, TEXT.length))
+                .andExpect(content().bytes(TEXT));
+    }
+
+    @Test
+    void singleRangeReturnsPartialContent() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.RANGE, "bytes=5-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-19/" + TEXT.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(TEXT, 5, 20)));
+    }
+
+    @Test
+    void suffixRangeReturnsTail() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 32-35/" + TEXT.length))
+                .andExpect(content().string("wxyz"));
+    }
+
+    @Test
+    void multipleRangesReturnByteranges() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        MvcResult result = mockMvc.perform(get("/file/content/{docId}", docId)
+                        .header(HttpHeaders.RANGE, "bytes=0-2,30-33"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        assertThat(result.getResponse().getContentType()).startsWith("multipart/byteranges");
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).contains("Content-Range: bytes 0-2/36", "012", "Content-Range: bytes 30-33/36", "uvwx");
+    }
+
+    @Test
+    void unsatisfiableRangeIsRejected() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void matchingEtagReturnsNotModified() throws Exception {
+        long docId = insertDoc(TEXT, "hash-plain", null);
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.IF_NONE_MATCH, "\"hash-plain\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unchangedSinceUploadReturnsNotModified() throws Exception {
+        long docId = insertDoc(TEXT, null, null);
+        ZonedDateTime uploaded = UPLOADED_AT.atZone(ZoneId.systemDefault());
+
+        mockMvc.perform(get("/file/content/{docId}", docId)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, DateTimeFormatter.RFC_1123_DATE_TIME.format(uploaded)))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/file/content/{docId}", docId)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE,
+                                DateTimeFormatter.RFC_1123_DATE_TIME.format(uploaded.minusDays(1))))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(TEXT));
+    }
+
+    @Test
+    void gzipDocGoesOutEncodedOrInflated() throws Exception {
+        byte[] text = "All work and no play makes Jack a dull boy. ".repeat(40).getBytes(StandardCharsets.US_ASCII);
+        byte[] gzipped = gzip(text);
+        long docId = insertDoc(text, gzipped, "hash-gzip", "gzip");
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash-gzip-gzip\""))
+                .andExpect(content().bytes(gzipped));
+
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"hash-gzip\""))
+                .andExpect(content().bytes(text));
+
+        // Ranges on the identity representation address decoded bytes
+        mockMvc.perform(get("/file/content/{docId}", docId).header(HttpHeaders.RANGE, "bytes=44-47"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("All "));
+    }
+
+    private long insertDoc(byte[] content, String contentHash, String codec) {
+        return insertDoc(content, content, contentHash, codec);
+    }
+
+    private long insertDoc(byte[] content, byte[] stored, String contentHash, String codec) {
+        jdbcTemplate.update("""
+                INSERT INTO doc (content, content_hash, ref_count, content_length, stored_length, codec, storage,
+                                 uploaded_at, uploaded_by)
+                VALUES (?, ?, 1, ?, ?, ?, 'DB', ?, 'test')
+                """, stored, contentHash, content.length, stored.length, codec, Timestamp.valueOf(UPLOADED_AT));
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM doc", Long.class);
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,196 @@
+package com.rohit.file.service;
+
+import com.rohit.file.dto.FileUploadResponse;
+import com.rohit.file.dto.UploadSessionRequest;
+import com.rohit.file.dto.UploadSessionResponse;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "file.upload.session.chunk-size=16B",
+        "file.upload.session.max-size=10GB"
+})
+@ActiveProfiles("test")
+class ChunkedUploadServiceTests {
+
+    // 40 bytes: chunks of 16, 16 and 8
+    private static final byte[] CONTENT = "forty bytes of chunked upload content!!!".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM upload_session");
+        jdbcTemplate.update("DELETE FROM file_metadata");
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void initiateSplitsTheFileIntoServerSizedChunks() throws Exception {
+        UploadSessionResponse session = chunkedUploadService.initiate(request(CONTENT.length));
+
+        assertThat(session.getChunkSize()).isEqualTo(16);
+        assertThat(session.getChunkCount()).isEqualTo(3);
+        assertThat(session.getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void initiateRejectsWhatTheDbStoreCannotHold() {
+        // The session limit is 10GB, but one BYTEA holds at most 1GB
+        assertThatThrownBy(() -> chunkedUploadService.initiate(request(2L << 30)))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+                    assertThat(e.getReason()).contains("SEGMENT");
+                });
+        assertStatus(() -> chunkedUploadService.initiate(request(-1)), HttpStatus.PAYLOAD_TOO_LARGE);
+        assertStatus(() -> chunkedUploadService.initiate(new UploadSessionRequest()), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void badChunksAreRejectedAndStatusListsTheGoodOnes() throws Exception {
+        String uploadId = chunkedUploadService.initiate(request(CONTENT.length)).getUploadId();
+
+        put(uploadId, 2);
+        byte[] first = chunk(0);
+        assertStatus(() -> chunkedUploadService.putChunk(uploadId, 0, "00",
+                new ByteArrayInputStream(first)), HttpStatus.BAD_REQUEST);
+        assertStatus(() -> chunkedUploadService.putChunk(uploadId, 0, ContentHasher.sha256(new ByteArrayInputStream(first)),
+                new ByteArrayInputStream(Arrays.copyOf(first, 10))), HttpStatus.BAD_REQUEST);
+        assertStatus(() -> chunkedUploadService.putChunk(uploadId, 3, "00",
+                new ByteArrayInputStream(first)), HttpStatus.BAD_REQUEST);
+
+        assertThat(chunkedUploadService.status(uploadId).getReceivedChunks()).containsExactly(2);
+        assertStatus(() -> chunkedUploadService.complete(uploadId), HttpStatus.CONFLICT);
+        assertStatus(() -> chunkedUploadService.status("not-an-upload"), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void completeStoresTheFileOnceAndEndsTheSession() throws Exception {
+        long docId = storeExisting();
+        String uploadId = chunkedUploadService.initiate(request(CONTENT.length)).getUploadId();
+        for (int i = 2; i >= 0; i--) {
+            put(uploadId, i);
+        }
+
+        FileUploadResponse response = chunkedUploadService.complete(uploadId);
+
+        assertThat(response.getDocId()).isEqualTo(docId);
+        assertThat(refCount(docId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT file_size FROM file_metadata WHERE id = ?", Long.class,
+                response.getFileMetadataId())).isEqualTo(CONTENT.length);
+        assertThat(Files.exists(stagingDir().resolve(uploadId))).isFalse();
+        assertStatus(() -> chunkedUploadService.complete(uploadId), HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void concurrentCompletesAttachTheFileOnce() throws Exception {
+        long docId = storeExisting();
+        String uploadId = chunkedUploadService.initiate(request(CONTENT.length)).getUploadId();
+        for (int i = 0; i < 3; i++) {
+            put(uploadId, i);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<FileUploadResponse>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return chunkedUploadService.complete(uploadId);
+                }));
+            }
+            start.countDown();
+
+            int completed = 0;
+            for (Future<FileUploadResponse> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                    completed++;
+                } catch (Exception e) {
+                    // Losers either found the session gone or lost the re-check under the row lock
+                    assertThat(e.getCause()).isInstanceOf(ResponseStatusException.class);
+                }
+            }
+            assertThat(completed).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+        // References taken by the losers were given back
+        assertThat(refCount(docId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM file_metadata", Integer.class)).isEqualTo(1);
+    }
+
+    private void put(String uploadId, int index) throws Exception {
+        byte[] chunk = chunk(index);
+        chunkedUploadService.putChunk(uploadId, index, ContentHasher.sha256(new ByteArrayInputStream(chunk)),
+                new ByteArrayInputStream(chunk));
+    }
+
+    private static byte[] chunk(int index) {
+        return Arrays.copyOfRange(CONTENT, index * 16, Math.min(CONTENT.length, (index + 1) * 16));
+    }
+
+    // The same bytes already stored once, so completing only references them (H2 cannot run the insert upsert)
+    private long storeExisting() throws Exception {
+        String hash = ContentHasher.sha256(new ByteArrayInputStream(CONTENT));
+        jdbcTemplate.update("""
+                INSERT INTO doc (content, content_hash, ref_count, content_length, stored_length, storage,
+                                 uploaded_at, uploaded_by)
+                VALUES (?, ?, 1, ?, ?, 'DB', ?, 'alice')
+                """, CONTENT, hash, CONTENT.length, CONTENT.length, Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT id FROM doc WHERE content_hash = ?", Long.class, hash);
+    }
+
+    private int refCount(long docId) {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM doc WHERE id = ?", Integer.class, docId);
+    }
+
+    private static Path stagingDir() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "file-upload-sessions");
+    }
+
+    private static UploadSessionRequest request(long totalSize) {
+        UploadSessionRequest request = new UploadSessionRequest();
+        request.setFileName("big.bin");
+        request.setContentType("application/octet-stream");
+        request.setTotalSize(totalSize);
+        request.setUploadedBy("alice");
+        return request;
+    }
+
+    private static void assertStatus(ThrowingCallable call, HttpStatus status) {
+        assertThatThrownBy(call)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
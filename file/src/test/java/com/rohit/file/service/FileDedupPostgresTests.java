@@ -0,0 +1,129 @@
+package com.rohit.file.service;
+
+import com.rohit.file.dto.FileUploadResponse;
+import com.rohit.file.repo.DocContentRepository;
+import com.rohit.file.storage.PendingBlob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// INSERT ... ON CONFLICT DO UPDATE is PostgreSQL-only, so the new-content path cannot run on H2
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.sql.init.mode=always"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class FileDedupPostgresTests {
+
+    private static final byte[] CONTENT = "new bytes, stored once".getBytes(StandardCharsets.UTF_8);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private DocContentRepository docContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM file_metadata");
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void insertOfKnownHashAddsItsReferencesToTheExistingDoc() throws Exception {
+        String hash = ContentHasher.sha256(new ByteArrayInputStream(CONTENT));
+
+        Long first = docContentRepository.insert(blob(hash, 1), "alice");
+        Long second = docContentRepository.insert(blob(hash, 2), "bob");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(docCount()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT ref_count FROM doc WHERE id = ?", Integer.class, first))
+                .isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT content FROM doc WHERE id = ?", byte[].class, first))
+                .isEqualTo(CONTENT);
+    }
+
+    @Test
+    void concurrentUploadsOfNewContentShareOneDoc() throws Exception {
+        int uploads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(uploads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<FileUploadResponse>> futures = new ArrayList<>();
+        try {
+            // None of them sees a committed doc to reference, so all go through the insert
+            for (int i = 0; i < uploads; i++) {
+                String name = "copy-" + i + ".txt";
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return fileService.uploadFile(new MockMultipartFile("file", name, "text/plain", CONTENT), null, "bob");
+                }));
+            }
+            start.countDown();
+
+            List<Long> docIds = new ArrayList<>();
+            for (Future<FileUploadResponse> future : futures) {
+                docIds.add(future.get(30, TimeUnit.SECONDS).getDocId());
+            }
+            assertThat(docIds).hasSize(uploads).containsOnly(docIds.get(0));
+            assertThat(docCount()).isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject("SELECT ref_count FROM doc", Integer.class)).isEqualTo(uploads);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchUploadOfNewContentCountsEveryCopy() throws Exception {
+        byte[] other = "other bytes".getBytes(StandardCharsets.UTF_8);
+
+        List<FileUploadResponse> responses = fileService.uploadFiles(List.of(
+                new MockMultipartFile("files", "a.txt", "text/plain", CONTENT),
+                new MockMultipartFile("files", "b.txt", "text/plain", other),
+                new MockMultipartFile("files", "c.txt", "text/plain", CONTENT)), null, "bob");
+
+        assertThat(responses.get(0).getDocId()).isEqualTo(responses.get(2).getDocId());
+        assertThat(responses.get(1).getDocId()).isNotEqualTo(responses.get(0).getDocId());
+        assertThat(docCount()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT ref_count FROM doc WHERE id = ?", Integer.class,
+                responses.get(0).getDocId())).isEqualTo(2);
+    }
+
+    private static PendingBlob blob(String hash, int refCount) {
+        return new PendingBlob(hash, CONTENT.length, CONTENT.length, null, refCount, new ByteArrayResource(CONTENT));
+    }
+
+    private int docCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM doc", Integer.class);
+    }
+}
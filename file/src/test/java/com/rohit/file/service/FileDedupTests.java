@@ -0,0 +1,125 @@
+package com.rohit.file.service;
+
+import com.rohit.file.dto.FileUploadResponse;
+import com.rohit.file.entity.FileMetadata;
+import com.rohit.file.repo.DocContentRepository;
+import com.rohit.file.repo.FileMetadataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class FileDedupTests {
+
+    private static final byte[] CONTENT = "same bytes, stored once".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private DocContentRepository docContentRepository;
+
+    @Autowired
+    private FileMetadataRepository metadataRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String hash;
+    private long docId;
+
+    @BeforeEach
+    void storeOriginal() throws Exception {
+        hash = ContentHasher.sha256(new ByteArrayInputStream(CONTENT));
+        jdbcTemplate.update("""
+                INSERT INTO doc (content, content_hash, ref_count, content_length, stored_length, storage,
+                                 uploaded_at, uploaded_by)
+                VALUES (?, ?, 1, ?, ?, 'DB', ?, 'alice')
+                """, CONTENT, hash, CONTENT.length, CONTENT.length, Timestamp.valueOf(LocalDateTime.now()));
+        docId = jdbcTemplate.queryForObject("SELECT id FROM doc WHERE content_hash = ?", Long.class, hash);
+
+        FileMetadata original = new FileMetadata();
+        original.setDocId(docId);
+        original.setFileName("original.txt");
+        original.setFileSize((long) CONTENT.length);
+        original.setContentType("text/plain");
+        original.setStatus("TEMP");
+        original.setUploadedBy("alice");
+        metadataRepository.save(original);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM file_metadata");
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void uploadOfKnownContentAddsReferenceInsteadOfBlob() throws Exception {
+        FileUploadResponse response = fileService.uploadFile(file("copy.txt"), null, "bob");
+
+        assertThat(response.getDocId()).isEqualTo(docId);
+        assertThat(refCount()).isEqualTo(2);
+        assertThat(docCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchUploadCountsEveryDuplicate() throws Exception {
+        List<FileUploadResponse> responses = fileService.uploadFiles(
+                List.of(file("a.txt"), file("b.txt"), file("c.txt")), null, "bob");
+
+        assertThat(responses).extracting(FileUploadResponse::getDocId).containsOnly(docId);
+        assertThat(refCount()).isEqualTo(4);
+        assertThat(docCount()).isEqualTo(1);
+    }
+
+    @Test
+    void blobIsDeletedWithItsLastReference() throws Exception {
+        fileService.uploadFile(file("copy.txt"), null, "bob");
+        List<FileMetadata> metas = metadataRepository.findAll();
+        assertThat(metas).hasSize(2);
+
+        fileService.deleteFile(metas.get(0).getId());
+        assertThat(refCount()).isEqualTo(1);
+
+        fileService.deleteFile(metas.get(1).getId());
+        assertThat(docCount()).isZero();
+    }
+
+    @Test
+    void releaseReportsWhetherTheBlobWent() {
+        assertThat(docContentRepository.reference(hash)).contains(docId);
+        assertThat(docContentRepository.reference("unknown-hash")).isEmpty();
+
+        assertThat(docContentRepository.release(docId)).isFalse();
+        assertThat(refCount()).isEqualTo(1);
+        assertThat(docContentRepository.release(docId)).isTrue();
+        assertThat(docCount()).isZero();
+    }
+
+    private MockMultipartFile file(String name) {
+        return new MockMultipartFile("file", name, "text/plain", CONTENT);
+    }
+
+    private int refCount() {
+        return jdbcTemplate.queryForObject("SELECT ref_count FROM doc WHERE id = ?", Integer.class, docId);
+    }
+
+    private int docCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM doc", Integer.class);
+    }
+}
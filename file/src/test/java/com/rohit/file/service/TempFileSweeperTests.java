@@ -0,0 +1,163 @@
+package com.rohit.file.service;
+
+import com.rohit.file.repo.DocContentRepository;
+import com.rohit.file.repo.TempFileRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The sweeper's DELETE ... RETURNING is PostgreSQL-only
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.sql.init.mode=always"
+})
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class TempFileSweeperTests {
+
+    private static final long EXISTING_CASE = 41L;
+    private static final long MISSING_CASE = 42L;
+    private static final LocalDateTime STALE = LocalDateTime.now().minusDays(8);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Autowired
+    private TempFileRepository tempFileRepository;
+
+    @Autowired
+    private DocContentRepository docContentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private HttpServer dataService;
+    private final AtomicInteger existsCalls = new AtomicInteger();
+
+    // Stand-in for data-service's POST /data/exists: only EXISTING_CASE exists
+    @BeforeEach
+    void startDataService() throws IOException {
+        dataService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        dataService.createContext("/data/exists", exchange -> {
+            existsCalls.incrementAndGet();
+            String ids = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            StringJoiner answer = new StringJoiner(",", "{", "}");
+            Matcher id = Pattern.compile("\\d+").matcher(ids);
+            while (id.find()) {
+                answer.add("\"" + id.group() + "\":" + (Long.parseLong(id.group()) == EXISTING_CASE));
+            }
+            byte[] body = answer.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        dataService.start();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        dataService.stop(0);
+        jdbcTemplate.update("DELETE FROM file_metadata");
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void staleUploadsAreFinalizedOrDeletedByWhetherTheirCaseExists() {
+        insertTemp(1, EXISTING_CASE, STALE);
+        insertTemp(2, MISSING_CASE, STALE);
+        insertTemp(3, null, STALE);
+        insertTemp(4, MISSING_CASE, LocalDateTime.now());
+
+        sweeper("http://localhost:" + dataService.getAddress().getPort()).sweep();
+
+        assertThat(status(1)).isEqualTo("FINAL");
+        assertThat(remainingIds()).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(docCount()).isEqualTo(2);
+        assertThat(existsCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void uploadsWithACaseIdAreKeptWhileDataServiceIsDown() {
+        insertTemp(1, EXISTING_CASE, STALE);
+        insertTemp(2, MISSING_CASE, STALE);
+        insertTemp(3, null, STALE);
+
+        sweeper("http://localhost:1").sweep();
+
+        assertThat(remainingIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(status(1)).isEqualTo("TEMP");
+        assertThat(status(2)).isEqualTo("TEMP");
+    }
+
+    private TempFileSweeper sweeper(String dataServiceBaseUrl) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CaseExistenceService caseExistenceService = new CaseExistenceService(WebClient.create(), meterRegistry,
+                dataServiceBaseUrl, Duration.ofSeconds(2), Duration.ofHours(1), 1000);
+        return new TempFileSweeper(tempFileRepository, docContentRepository, caseExistenceService,
+                transactionManager, dataSource, meterRegistry, Duration.ofDays(7), 200, 50, 1.0);
+    }
+
+    // One doc per upload, so a deleted upload also frees its doc
+    private void insertTemp(long id, Long caseId, LocalDateTime uploadedAt) {
+        jdbcTemplate.update("""
+                INSERT INTO doc (id, content, content_hash, ref_count, content_length, stored_length, storage,
+                                 uploaded_at, uploaded_by)
+                VALUES (?, ?, ?, 1, 1, 1, 'DB', ?, 'alice')
+                """, id, new byte[]{(byte) id}, "hash-" + id, Timestamp.valueOf(uploadedAt));
+        jdbcTemplate.update("""
+                INSERT INTO file_metadata (id, case_id, doc_id, file_name, file_size, content_type, status,
+                                           uploaded_at, uploaded_by)
+                VALUES (?, ?, ?, 'f.txt', 1, 'text/plain', 'TEMP', ?, 'alice')
+                """, id, caseId, id, Timestamp.valueOf(uploadedAt));
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM file_metadata WHERE id = ?", String.class, id);
+    }
+
+    private Set<Long> remainingIds() {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT id FROM file_metadata", Long.class));
+    }
+
+    private int docCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM doc", Integer.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class JdbcBlobResourceTests {
+
+    private static final byte[] CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHUNK_SIZE = 4;
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private DocContentRepository docContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private SegmentBlobStore segmentStore;
+    private long docId;
+
+    @BeforeEach
+    void storeDoc() throws IOException {
+        segmentStore = new SegmentBlobStore(dir, 1 << 20, docContentRepository);
+        jdbcTemplate.update("""
+                INSERT INTO doc (content, content_hash, ref_count, content_length, stored_length, storage,
+                                 uploaded_at, uploaded_by)
+                VALUES (?, 'h1', 1, ?, ?, 'DB', ?, 'test')
+                """, CONTENT, CONTENT.length, CONTENT.length, Timestamp.valueOf(LocalDateTime.now()));
+        docId = jdbcTemplate.queryForObject("SELECT id FROM doc WHERE content_hash = 'h1'", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void readsInChunksAndSkipsWithoutFetching() throws IOException {
+        try (InputStream in = resource(segmentStore).openStored()) {
+            assertThat(in.readNBytes(6)).isEqualTo(Arrays.copyOfRange(CONTENT, 0, 6));
+            assertThat(in.skip(20)).isEqualTo(20);
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(CONTENT, 26, CONTENT.length));
+        }
+    }
+
+    @Test
+    void readContinuesFromTheSegmentWhenMigratedMidStream() throws IOException {
+        try (InputStream in = resource(segmentStore).openStored()) {
+            byte[] head = in.readNBytes(10);
+            migrate();
+            byte[] tail = in.readAllBytes();
+
+            byte[] whole = Arrays.copyOf(head, head.length + tail.length);
+            System.arraycopy(tail, 0, whole, head.length, tail.length);
+            assertThat(whole).isEqualTo(CONTENT);
+        }
+    }
+
+    @Test
+    void skipAfterMigrationLandsOnTheSameOffset() throws IOException {
+        try (InputStream in = resource(segmentStore).openStored()) {
+            in.readNBytes(3);
+            migrate();
+            assertThat(in.readNBytes(3)).isEqualTo(Arrays.copyOfRange(CONTENT, 3, 6));
+            assertThat(in.skip(14)).isEqualTo(14);
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(CONTENT, 20, CONTENT.length));
+        }
+    }
+
+    @Test
+    void deletedMidStreamFailsWithIOException() throws IOException {
+        try (InputStream in = resource(segmentStore).openStored()) {
+            in.readNBytes(4);
+            docContentRepository.release(docId);
+            assertThatIOException().isThrownBy(in::readAllBytes).withMessageContaining("deleted");
+        }
+    }
+
+    @Test
+    void migratedWithoutSegmentStoreFailsWithIOException() throws IOException {
+        try (InputStream in = resource(null).openStored()) {
+            in.readNBytes(4);
+            migrate();
+            assertThatIOException().isThrownBy(in::readAllBytes).withMessageContaining("SEGMENT");
+        }
+    }
+
+    private JdbcBlobResource resource(SegmentBlobStore store) {
+        DocContentInfo info = docContentRepository.findInfo(docId).orElseThrow();
+        return new JdbcBlobResource(info, docContentRepository, store, CHUNK_SIZE);
+    }
+
+    // What BlobMigrationJob does for one doc
+    private void migrate() throws IOException {
+        SegmentBlobStore.Location location = segmentStore.append(new ByteArrayInputStream(CONTENT), CONTENT.length);
+        try {
+            assertThat(docContentRepository.moveToSegment(docId, location.segmentId(), location.offset())).isTrue();
+        } finally {
+            segmentStore.release(location);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.rohit.file.storage;
+
+import com.rohit.file.dto.DocContentInfo;
+import com.rohit.file.repo.DocContentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SegmentBlobStoreTests {
+
+    // Two 40-byte blobs fit in a segment, a third starts the next one
+    private static final long MAX_SEGMENT_SIZE = 100;
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private DocContentRepository docContentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SegmentBlobStore store;
+    private SegmentCompactor compactor;
+
+    @BeforeEach
+    void openStore() throws IOException {
+        store = new SegmentBlobStore(dir, MAX_SEGMENT_SIZE, docContentRepository);
+        compactor = new SegmentCompactor(store, docContentRepository, 0.6, 10);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM doc");
+    }
+
+    @Test
+    void appendedBlobsReadBackWholeAndInRanges() throws IOException {
+        byte[] first = bytes(40, 'a');
+        byte[] second = bytes(40, 'b');
+        byte[] third = bytes(40, 'c');
+        long firstId = storeCommitted(first, "h1");
+        long secondId = storeCommitted(second, "h2");
+        long thirdId = storeCommitted(third, "h3");
+
+        assertThat(info(firstId).getSegmentId()).isEqualTo(1L);
+        assertThat(info(secondId).getSegmentOffset()).isEqualTo(40L);
+        assertThat(info(thirdId).getSegmentId()).isEqualTo(2L);
+        assertThat(read(secondId)).isEqualTo(second);
+        assertThat(read(thirdId)).isEqualTo(third);
+
+        try (InputStream in = store.load(info(secondId)).openStored()) {
+            assertThat(in.skip(35)).isEqualTo(35);
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(second, 35, 40));
+        }
+        assertThat(store.sealedSegmentIds()).containsExactly(1L);
+    }
+
+    @Test
+    void compactionMovesLiveDocsAndDeletesTheOldSegmentNextRun() throws IOException {
+        long deadId = storeCommitted(bytes(40, 'a'), "h1");
+        byte[] live = bytes(40, 'b');
+        long liveId = storeCommitted(live, "h2");
+        storeCommitted(bytes(40, 'c'), "h3");
+        docContentRepository.release(deadId);
+
+        compactor.compact();
+
+        DocContentInfo moved = info(liveId);
+        assertThat(moved.getSegmentId()).isEqualTo(2L);
+        assertThat(read(liveId)).isEqualTo(live);
+        // Kept for one more run so reads of the old location can finish
+        assertThat(Files.exists(dir.resolve("segment-1.dat"))).isTrue();
+
+        compactor.compact();
+
+        assertThat(Files.exists(dir.resolve("segment-1.dat"))).isFalse();
+        assertThat(read(liveId)).isEqualTo(live);
+    }
+
+    @Test
+    void segmentWithUncommittedWriteIsNotCompacted() throws IOException {
+        // An upload appended its bytes but has not committed the doc row yet
+        byte[] pending = bytes(40, 'p');
+        SegmentBlobStore.Location location = store.append(new ByteArrayInputStream(pending), pending.length);
+        storeCommitted(bytes(80, 'x'), "h2");
+        assertThat(store.sealedSegmentIds()).containsExactly(1L);
+
+        compactor.compact();
+        compactor.compact();
+
+        assertThat(Files.exists(dir.resolve("segment-1.dat"))).isTrue();
+
+        long pendingId = insertSegmentDoc(pending, "h1", location);
+        store.release(location);
+        compactor.compact();
+        compactor.compact();
+
+        assertThat(read(pendingId)).isEqualTo(pending);
+    }
+
+    @Test
+    void reservationIsReleasedWhenTheTransactionEnds() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        SegmentBlobStore.Location location = transaction.execute(status -> {
+            try {
+                SegmentBlobStore.Location appended = store.append(new ByteArrayInputStream(bytes(10, 'a')), 10);
+                store.releaseAfterCompletion(List.of(appended));
+                assertThat(store.hasOpenReservations(appended.segmentId())).isTrue();
+                return appended;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(store.hasOpenReservations(location.segmentId())).isFalse();
+    }
+
+    @Test
+    void failedAppendDoesNotLeaveAReservation() {
+        ByteArrayInputStream shortUpload = new ByteArrayInputStream(bytes(5, 'a'));
+
+        assertThatIOException().isThrownBy(() -> store.append(shortUpload, 10));
+        assertThat(store.hasOpenReservations(1L)).isFalse();
+    }
+
+    // Append, insert the row and release, like an upload that committed
+    private long storeCommitted(byte[] content, String hash) throws IOException {
+        SegmentBlobStore.Location location = store.append(new ByteArrayInputStream(content), content.length);
+        try {
+            return insertSegmentDoc(content, hash, location);
+        } finally {
+            store.release(location);
+        }
+    }
+
+    private long insertSegmentDoc(byte[] content, String hash, SegmentBlobStore.Location location) {
+        jdbcTemplate.update("""
+                INSERT INTO doc (content_hash, ref_count, content_length, stored_length, storage,
+                                 segment_id, segment_offset, uploaded_at, uploaded_by)
+                VALUES (?, 1, ?, ?, 'SEGMENT', ?, ?, ?, 'test')
+                """, hash, content.length, content.length, location.segmentId(), location.offset(),
+                Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT id FROM doc WHERE content_hash = ?", Long.class, hash);
+    }
+
+    private DocContentInfo info(long docId) {
+        return docContentRepository.findInfo(docId).orElseThrow();
+    }
+
+    private byte[] read(long docId) throws IOException {
+        try (InputStream in = store.load(info(docId)).getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] bytes(int length, char fill) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
@@ -0,0 +1,44 @@
+-- H2 copy of the tables file-service uses, as data-service's Liquibase changelog leaves them
+CREATE TABLE IF NOT EXISTS doc (
+    id             BIGSERIAL PRIMARY KEY,
+    content        BYTEA,
+    content_hash   VARCHAR(64),
+    ref_count      INT         DEFAULT 1    NOT NULL,
+    content_length BIGINT,
+    stored_length  BIGINT,
+    codec          VARCHAR(16),
+    storage        VARCHAR(16) DEFAULT 'DB' NOT NULL,
+    segment_id     BIGINT,
+    segment_offset BIGINT,
+    uploaded_at    TIMESTAMP                NOT NULL,
+    uploaded_by    VARCHAR(255)             NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_doc_content_hash ON doc (content_hash);
+CREATE INDEX IF NOT EXISTS ix_doc_segment_id ON doc (segment_id, id);
+
+CREATE SEQUENCE IF NOT EXISTS file_metadata_id_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS file_metadata (
+    id           BIGINT PRIMARY KEY,
+    case_id      BIGINT,
+    doc_id       BIGINT       NOT NULL REFERENCES doc (id) ON DELETE CASCADE,
+    file_name    VARCHAR(255) NOT NULL,
+    file_size    BIGINT       NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    status       VARCHAR(20)  NOT NULL,
+    uploaded_at  TIMESTAMP    NOT NULL,
+    uploaded_by  VARCHAR(255) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS ix_file_metadata_status_id ON file_metadata (status, id);
+CREATE INDEX IF NOT EXISTS ix_file_metadata_case_status ON file_metadata (case_id, status);
+
+CREATE TABLE IF NOT EXISTS upload_session (
+    id           VARCHAR(36) PRIMARY KEY,
+    case_id      BIGINT,
+    file_name    VARCHAR(255) NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    total_size   BIGINT       NOT NULL,
+    chunk_size   INT          NOT NULL,
+    created_at   TIMESTAMP    NOT NULL,
+    uploaded_by  VARCHAR(255) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS ix_upload_session_created_at ON upload_session (created_at);
@@ -1,27 +1,45 @@
 package com.rohit.refdata.controller;
 
-import com.rohit.refdata.dto.CountryDto;
-import com.rohit.refdata.service.CountryService;
+import com.rohit.refdata.service.RefDataSnapshot;
+import com.rohit.refdata.service.RefDataSnapshots;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/refdata")
-@CrossOrigin(origins = "*") // later you can restrict to your React origin
+@CrossOrigin(origins = "*", exposedHeaders = "ETag") // later you can restrict to your React origin
 public class RefDataController {
 
-    private final CountryService countryService;
+    private final RefDataSnapshots refDataSnapshots;
+    private final CacheControl cacheControl;
 
-    public RefDataController(CountryService countryService) {
-        this.countryService = countryService;
+    public RefDataController(RefDataSnapshots refDataSnapshots,
+                             @Value("${refdata.snapshot.max-age:1h}") Duration maxAge) {
+        this.refDataSnapshots = refDataSnapshots;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
     }
 
+    // API: GET /refdata/countries  (send If-None-Match with the last ETag; 304 when unchanged)
     @GetMapping("/countries")
-    public List<CountryDto> getCountries() {
-        return countryService.getAllCountries();
+    public ResponseEntity<byte[]> getCountries() {
+        return snapshot(RefDataSnapshots.COUNTRIES);
+    }
+
+    // Spring answers a matching If-None-Match with 304 and no body
+    private ResponseEntity<byte[]> snapshot(String name) {
+        RefDataSnapshot snapshot = refDataSnapshots.get(name);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(snapshot.etag())
+                .cacheControl(cacheControl)
+                .body(snapshot.json());
     }
 }
@@ -3,6 +3,7 @@ package com.rohit.refdata.service;
 import com.rohit.refdata.dto.CountryDto;
 import com.rohit.refdata.entity.Country;
 import com.rohit.refdata.repository.CountryRepository;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,8 +18,9 @@ public class CountryService {
         this.countryRepository = countryRepository;
     }
 
+    // Ordered by code, so the serialized snapshot (and its ETag) only changes when the data does
     public List<CountryDto> getAllCountries() {
-        List<Country> entities = countryRepository.findAll();
+        List<Country> entities = countryRepository.findAll(Sort.by("code"));
 
         return entities.stream()
                 .map(country -> new CountryDto(country.getCode(), country.getName()))
@@ -0,0 +1,10 @@
+package com.rohit.refdata.service;
+
+import java.time.Instant;
+
+/**
+ * One reference set, serialized once. The ETag is a hash of the JSON, so
+ * every replica hands out the same tag for the same content.
+ */
+public record RefDataSnapshot(String name, byte[] json, String etag, int size, Instant loadedAt) {
+}
@@ -0,0 +1,100 @@
+package com.rohit.refdata.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized snapshots of every reference set, so a request is a map
+ * lookup and a byte copy instead of a query and a JSON rendering.
+ *
+ * Reference data only changes with a Liquibase changeset, so the tables
+ * are simply re-read on a timer. A set's snapshot is replaced, as one
+ * object, only when its JSON changed: readers see the old or the new set,
+ * never a mix, and the ETag stays put while nothing changes.
+ */
+@Service
+public class RefDataSnapshots {
+
+    public static final String COUNTRIES = "countries";
+
+    private static final Logger log = LoggerFactory.getLogger(RefDataSnapshots.class);
+
+    private final Map<String, Supplier<List<?>>> loaders = new LinkedHashMap<>();
+    private final Map<String, RefDataSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    public RefDataSnapshots(CountryService countryService, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // New reference sets register their loader here
+        loaders.put(COUNTRIES, countryService::getAllCountries);
+    }
+
+    // Current snapshot; loaded on first use if startup could not load it
+    public RefDataSnapshot get(String name) {
+        RefDataSnapshot snapshot = snapshots.get(name);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        try {
+            return refresh(name);
+        } catch (RuntimeException e) {
+            log.warn("Reference set {} unavailable: {}", name, e.getMessage());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Reference data is not loaded yet");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${refdata.snapshot.refresh-interval-ms:60000}",
+            fixedDelayString = "${refdata.snapshot.refresh-interval-ms:60000}")
+    public void refreshAll() {
+        for (String name : loaders.keySet()) {
+            try {
+                refresh(name);
+            } catch (RuntimeException e) {
+                // Keep serving the last good snapshot
+                log.warn("Could not refresh reference set {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    // Synchronized so a refresh and a first-use load cannot race to publish different versions
+    private synchronized RefDataSnapshot refresh(String name) {
+        List<?> rows = loaders.get(name).get();
+        byte[] json = objectMapper.writeValueAsBytes(rows);
+        String etag = name + "-" + sha256(json).substring(0, 16);
+
+        RefDataSnapshot current = snapshots.get(name);
+        if (current != null && current.etag().equals(etag)) {
+            return current;
+        }
+        RefDataSnapshot fresh = new RefDataSnapshot(name, json, etag, rows.size(), Instant.now());
+        snapshots.put(name, fresh);
+        log.info("Reference set {} loaded: {} rows, version {}", name, rows.size(), etag);
+        return fresh;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.rohit.refdata.controller;
+
+import com.rohit.refdata.service.CountryService;
+import com.rohit.refdata.service.RefDataSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RefDataControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RefDataSnapshots refDataSnapshots;
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO ref_country (code, name) VALUES ('US', 'United States'), ('IN', 'India')");
+        refDataSnapshots.refreshAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("ALTER TABLE IF EXISTS ref_country_offline RENAME TO ref_country");
+        jdbcTemplate.update("DELETE FROM ref_country");
+    }
+
+    @Test
+    void countriesAreServedWithAnEtag() throws Exception {
+        mockMvc.perform(get("/refdata/countries"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, matchesPattern("\"countries-[0-9a-f]{16}\"")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(jsonPath("$[0].code").value("IN"))
+                .andExpect(jsonPath("$[1].name").value("United States"));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String etag = etag();
+
+        mockMvc.perform(get("/refdata/countries").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void etagStaysPutUntilTheDataChanges() throws Exception {
+        String before = etag();
+
+        refDataSnapshots.refreshAll();
+        assertThat(etag()).isEqualTo(before);
+
+        jdbcTemplate.update("INSERT INTO ref_country (code, name) VALUES ('FR', 'France')");
+        refDataSnapshots.refreshAll();
+        String after = etag();
+        assertThat(after).isNotEqualTo(before);
+        mockMvc.perform(get("/refdata/countries").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void failedRefreshKeepsTheLastGoodSnapshot() throws Exception {
+        String before = etag();
+        jdbcTemplate.execute("ALTER TABLE ref_country RENAME TO ref_country_offline");
+
+        refDataSnapshots.refreshAll();
+
+        assertThat(etag()).isEqualTo(before);
+        mockMvc.perform(get("/refdata/countries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void unavailableBeforeTheFirstLoad() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE ref_country RENAME TO ref_country_offline");
+        // A fresh set of snapshots, as on an instance whose startup load failed
+        RefDataSnapshots neverLoaded = new RefDataSnapshots(countryService, objectMapper);
+        MockMvc unloaded = MockMvcBuilders.standaloneSetup(new RefDataController(neverLoaded, Duration.ofHours(1)))
+                .build();
+
+        unloaded.perform(get("/refdata/countries"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/refdata/countries"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+}
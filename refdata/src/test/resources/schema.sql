@@ -0,0 +1,5 @@
+-- H2 copy of the reference tables refdata-service reads, as data-service's Liquibase changelog leaves them
+CREATE TABLE IF NOT EXISTS ref_country (
+    code VARCHAR(10) PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
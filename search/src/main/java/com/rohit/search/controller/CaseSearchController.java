@@ -1,24 +1,104 @@
 package com.rohit.search.controller;
 
-import com.rohit.search.entity.Case;
+import com.rohit.search.dto.CaseFacets;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseSearchPage;
+import com.rohit.search.dto.CaseSuggestions;
+import com.rohit.search.dto.CaseTextPage;
+import com.rohit.search.service.CaseExportService;
+import com.rohit.search.service.CaseFacetService;
 import com.rohit.search.service.CaseSearchService;
+import com.rohit.search.service.CaseSuggestService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/search")
 @CrossOrigin(origins = "*")
 public class CaseSearchController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
     private final CaseSearchService caseSearchService;
+    private final CaseExportService caseExportService;
+    private final CaseFacetService caseFacetService;
+    private final CaseSuggestService caseSuggestService;
 
-    public CaseSearchController(CaseSearchService caseSearchService) {
+    public CaseSearchController(CaseSearchService caseSearchService,
+                                CaseExportService caseExportService,
+                                CaseFacetService caseFacetService,
+                                CaseSuggestService caseSuggestService) {
         this.caseSearchService = caseSearchService;
+        this.caseExportService = caseExportService;
+        this.caseFacetService = caseFacetService;
+        this.caseSuggestService = caseSuggestService;
     }
 
+    // API: GET /search/cases?country=&minAmount=&maxAmount=&createdFrom=&createdTo=&reporter=
+    //                        &sort=createdAt|amount|id&order=desc|asc&size=&cursor=
     @GetMapping("/cases")
-    public List<Case> getAllCases() {
-        return caseSearchService.getAllCases();
+    public CaseSearchPage searchCases(@ModelAttribute CaseSearchCriteria criteria,
+                                      @RequestParam(value = "sort", defaultValue = "createdAt") String sort,
+                                      @RequestParam(value = "order", defaultValue = "desc") String order,
+                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                      @RequestParam(value = "size", required = false) Integer size,
+                                      @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl) {
+        return caseSearchService.search(criteria, sort, order, cursor, size, bypassCache(cacheControl));
+    }
+
+    // API: GET /search/cases/text?q=<words>&page=&size=  (same filters as /search/cases; best matches first)
+    @GetMapping("/cases/text")
+    public CaseTextPage searchText(@RequestParam("q") String q,
+                                   @ModelAttribute CaseSearchCriteria criteria,
+                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                   @RequestParam(value = "size", required = false) Integer size,
+                                   @RequestHeader(value = HttpHeaders.CACHE_CONTROL, required = false) String cacheControl) {
+        return caseSearchService.searchText(q, criteria, page, size, bypassCache(cacheControl));
+    }
+
+    // API: GET /search/facets?interval=day|week|month|year  (same filters as /search/cases)
+    @GetMapping("/facets")
+    public CaseFacets facets(@ModelAttribute CaseSearchCriteria criteria,
+                             @RequestParam(value = "interval", defaultValue = "month") String interval) {
+        return caseFacetService.facets(criteria, interval);
+    }
+
+    // API: GET /search/suggest?prefix=<typed text>&field=title|reporter|all&limit=  (case-insensitive, most cases first)
+    @GetMapping("/suggest")
+    public CaseSuggestions suggest(@RequestParam("prefix") String prefix,
+                                   @RequestParam(value = "field", defaultValue = "all") String field,
+                                   @RequestParam(value = "limit", required = false) Integer limit) {
+        return caseSuggestService.suggest(prefix, field, limit);
+    }
+
+    // API: GET /search/cases/export?format=ndjson|csv  (same filters as /search/cases; every match, streamed)
+    @GetMapping("/cases/export")
+    public ResponseEntity<StreamingResponseBody> exportCases(@ModelAttribute CaseSearchCriteria criteria,
+                                                             @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        CaseExportService.Format exportFormat;
+        try {
+            exportFormat = CaseExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        boolean csv = exportFormat == CaseExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(csv ? "cases.csv" : "cases.ndjson").build().toString())
+                .body(out -> caseExportService.export(criteria, exportFormat, out));
+    }
+
+    // "Cache-Control: no-cache" on a search request skips the result cache and refreshes the entry
+    private static boolean bypassCache(String cacheControl) {
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
     }
 }
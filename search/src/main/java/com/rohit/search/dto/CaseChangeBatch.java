@@ -0,0 +1,24 @@
+package com.rohit.search.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One page of data-service's GET /data/changes
+@Data
+public class CaseChangeBatch {
+    private List<CaseChange> changes;
+    private long nextCursor;
+    private boolean hasMore;
+
+    public record CaseChange(long seq, String type, LocalDateTime changedAt, ChangedCase caseData) {
+    }
+
+    // The case as data-service serializes it
+    public record ChangedCase(Long id, String title, String description, String country, BigDecimal amount,
+                              String reporterName, @JsonProperty("createdDate") LocalDateTime createdAt) {
+    }
+}
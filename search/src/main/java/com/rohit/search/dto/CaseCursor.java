@@ -0,0 +1,45 @@
+package com.rohit.search.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page: the sort key value and id of that
+ * row, plus the order it was read in so a cursor cannot be replayed against
+ * a different sort. Sent to clients as an opaque base64url token.
+ */
+public record CaseCursor(CaseSort sort, boolean descending, String value, long id) {
+
+    public String encode() {
+        String raw = sort.param() + "|" + (descending ? "desc" : "asc") + "|" + value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CaseCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            CaseSort sort = CaseSort.fromParam(parts[0]);
+            // Checked here, before the value reaches the query as a bind parameter
+            if (sort == CaseSort.AMOUNT) {
+                new BigDecimal(parts[2]);
+            } else if (sort == CaseSort.CREATED_AT) {
+                LocalDateTime.parse(parts[2]);
+            }
+            return new CaseCursor(sort, "desc".equals(parts[1]), parts[2], Long.parseLong(parts[3]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
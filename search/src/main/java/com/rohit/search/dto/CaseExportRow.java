@@ -0,0 +1,9 @@
+package com.rohit.search.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One exported case, all columns
+public record CaseExportRow(Long id, String title, String description, String country, BigDecimal amount,
+                            String reporterName, LocalDateTime createdAt) {
+}
@@ -0,0 +1,26 @@
+package com.rohit.search.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class CaseFacets {
+    private long total;
+    private List<CountryCount> countries;       // most cases first
+    private List<AmountBucket> amounts;         // every configured bucket, in order
+    private String interval;                    // day / week / month / year
+    private List<DateBucket> created;           // non-empty buckets, oldest first
+
+    public record CountryCount(String country, long count) {
+    }
+
+    // [from, to); a null bound is open
+    public record AmountBucket(BigDecimal from, BigDecimal to, long count) {
+    }
+
+    public record DateBucket(LocalDate start, long count) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.rohit.search.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Filters bound from query parameters; every one is optional and they combine with AND
+@Data
+public class CaseSearchCriteria {
+    private String country;
+    private BigDecimal minAmount;           // inclusive
+    private BigDecimal maxAmount;           // inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;      // inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;        // exclusive
+    private String reporter;                // exact reporter name
+}
@@ -0,0 +1,11 @@
+package com.rohit.search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CaseSearchPage {
+    private List<CaseSummary> items;
+    private String nextCursor;      // pass back as ?cursor= for the next page; null on the last page
+}
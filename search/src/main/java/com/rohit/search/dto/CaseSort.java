@@ -0,0 +1,36 @@
+package com.rohit.search.dto;
+
+import java.util.Locale;
+
+// Sort keys for case lists; id always breaks ties so keyset cursors are exact
+public enum CaseSort {
+
+    CREATED_AT("createdAt", "created_at"),
+    AMOUNT("amount", "amount"),
+    ID("id", "id");
+
+    private final String param;
+    private final String column;
+
+    CaseSort(String param, String column) {
+        this.param = param;
+        this.column = column;
+    }
+
+    public String param() {
+        return param;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public static CaseSort fromParam(String value) {
+        for (CaseSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value) || sort.name().equals(value.toUpperCase(Locale.ROOT))) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + value);
+    }
+}
@@ -0,0 +1,16 @@
+package com.rohit.search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CaseSuggestions {
+    private String prefix;
+    private List<Suggestion> titles;            // most cases first
+    private List<Suggestion> reporters;         // most cases first
+
+    // A distinct value (case and spacing ignored) and how many cases have it
+    public record Suggestion(String text, long count) {
+    }
+}
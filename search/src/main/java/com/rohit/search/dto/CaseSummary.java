@@ -0,0 +1,9 @@
+package com.rohit.search.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A case without its description, for lists
+public record CaseSummary(Long id, String title, String country, BigDecimal amount,
+                          String reporterName, LocalDateTime createdAt) {
+}
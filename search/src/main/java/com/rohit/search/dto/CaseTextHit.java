@@ -0,0 +1,9 @@
+package com.rohit.search.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A full-text match; title and snippet are HTML-escaped with matched words wrapped in <mark>
+public record CaseTextHit(Long id, String title, String country, BigDecimal amount, String reporterName,
+                          LocalDateTime createdAt, double rank, String snippet) {
+}
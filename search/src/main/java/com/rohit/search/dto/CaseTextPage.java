@@ -0,0 +1,13 @@
+package com.rohit.search.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CaseTextPage {
+    private List<CaseTextHit> items;
+    private int page;
+    private int size;
+    private boolean hasMore;
+}
@@ -0,0 +1,8 @@
+package com.rohit.search.dto;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+// Raw facet counts before they are shaped into CaseFacets; amounts[i] counts bucket i of the configured edges
+public record FacetCounts(long total, Map<String, Long> countries, long[] amounts, SortedMap<Long, Long> days) {
+}
@@ -0,0 +1,33 @@
+package com.rohit.search.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+// Creation-date bucket sizes for facets; weeks start on Monday
+public enum FacetInterval {
+
+    DAY, WEEK, MONTH, YEAR;
+
+    public LocalDate bucketStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+            case YEAR -> day.withDayOfYear(1);
+        };
+    }
+
+    public String param() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static FacetInterval fromParam(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown interval: " + value);
+        }
+    }
+}
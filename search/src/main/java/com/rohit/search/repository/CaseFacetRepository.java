@@ -0,0 +1,81 @@
+package com.rohit.search.repository;
+
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.FacetCounts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Facet queries against the cases table. GROUP BY queries serve facets
+ * only until the in-memory CaseFacetIndex is loaded (or when it is
+ * disabled); the index itself is filled from streamFacetColumns().
+ */
+@Repository
+public class CaseFacetRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    public CaseFacetRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                               DataSource dataSource,
+                               @Value("${search.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    // Every case's facet columns, streamed; call inside a transaction so Postgres honours the fetch size
+    public void streamFacetColumns(RowCallbackHandler handler) {
+        streamingTemplate.query("SELECT id, country, amount, reporter_name, created_at FROM cases", handler);
+    }
+
+    public FacetCounts aggregate(CaseSearchCriteria criteria, List<BigDecimal> amountEdges) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = CaseSearchRepository.filterConditions(criteria, params);
+        String where = CaseSearchRepository.where(conditions);
+
+        Map<String, Long> countries = new HashMap<>();
+        long[] total = {0};
+        jdbcTemplate.query("SELECT country, COUNT(*) AS n FROM cases" + where + " GROUP BY country", params, rs -> {
+            long n = rs.getLong("n");
+            countries.put(rs.getString("country"), n);
+            total[0] += n;
+        });
+
+        StringBuilder bucket = new StringBuilder("CASE");
+        for (int i = 0; i < amountEdges.size(); i++) {
+            params.addValue("edge" + i, amountEdges.get(i));
+            bucket.append(" WHEN amount < :edge").append(i).append(" THEN ").append(i);
+        }
+        bucket.append(" ELSE ").append(amountEdges.size()).append(" END");
+        long[] amounts = new long[amountEdges.size() + 1];
+        jdbcTemplate.query("SELECT bucket, COUNT(*) AS n FROM (SELECT " + bucket + " AS bucket FROM cases"
+                + (where.isEmpty() ? " WHERE" : where + " AND") + " amount IS NOT NULL) b GROUP BY bucket", params,
+                rs -> {
+                    amounts[rs.getInt("bucket")] = rs.getLong("n");
+                });
+
+        SortedMap<Long, Long> days = new TreeMap<>();
+        jdbcTemplate.query("SELECT CAST(created_at AS DATE) AS created_day, COUNT(*) AS n FROM cases" + where
+                + " GROUP BY CAST(created_at AS DATE)", params, rs -> {
+            Date day = rs.getDate("created_day");
+            if (day != null) {
+                days.put(day.toLocalDate().toEpochDay(), rs.getLong("n"));
+            }
+        });
+        return new FacetCounts(total[0], countries, amounts, days);
+    }
+}
@@ -0,0 +1,138 @@
+package com.rohit.search.repository;
+
+import com.rohit.search.dto.CaseCursor;
+import com.rohit.search.dto.CaseExportRow;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseSort;
+import com.rohit.search.dto.CaseSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Filtered, keyset-paginated case queries. Only the list columns are read,
+ * never description, and each page seeks straight to the cursor through
+ * the (sort column, id) indexes (Liquibase 1.0.13) instead of skipping
+ * OFFSET rows.
+ */
+@Repository
+public class CaseSearchRepository {
+
+    private static final String SUMMARY_COLUMNS = "id, title, country, amount, reporter_name, created_at";
+
+    public static final RowMapper<CaseSummary> SUMMARY_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new CaseSummary(rs.getLong("id"), rs.getString("title"), rs.getString("country"),
+                rs.getBigDecimal("amount"), rs.getString("reporter_name"),
+                createdAt == null ? null : createdAt.toLocalDateTime());
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate exportTemplate;
+
+    public CaseSearchRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                DataSource dataSource,
+                                @Value("${search.export.fetch-size:1000}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Forward-only result set read `exportFetchSize` rows at a time; Postgres only streams
+        // like this inside a transaction, so callers wrap export() in one
+        JdbcTemplate export = new JdbcTemplate(dataSource);
+        export.setFetchSize(exportFetchSize);
+        this.exportTemplate = new NamedParameterJdbcTemplate(export);
+    }
+
+    // Up to `limit` summaries after the cursor (null = first page)
+    public List<CaseSummary> search(CaseSearchCriteria criteria, CaseSort sort, boolean descending,
+                                    CaseCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> conditions = filterConditions(criteria, params);
+        if (sort == CaseSort.AMOUNT) {
+            // NULL amounts have no place in a keyset order; cases always carry one in practice
+            conditions.add("amount IS NOT NULL");
+        }
+        if (after != null) {
+            conditions.add(keysetCondition(sort, descending, after, params));
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        String orderBy = sort == CaseSort.ID
+                ? "id" + direction
+                : sort.column() + direction + ", id" + direction;
+        params.addValue("limit", limit);
+        String sql = "SELECT " + SUMMARY_COLUMNS + " FROM cases" + where(conditions)
+                + " ORDER BY " + orderBy + " LIMIT :limit";
+        return jdbcTemplate.query(sql, params, SUMMARY_MAPPER);
+    }
+
+    // Every matching case in id order, handed to the callback one row at a time
+    public void export(CaseSearchCriteria criteria, Consumer<CaseExportRow> rowConsumer) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT id, title, description, country, amount, reporter_name, created_at FROM cases"
+                + where(filterConditions(criteria, params)) + " ORDER BY id";
+        exportTemplate.query(sql, params, rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            rowConsumer.accept(new CaseExportRow(rs.getLong("id"), rs.getString("title"),
+                    rs.getString("description"), rs.getString("country"), rs.getBigDecimal("amount"),
+                    rs.getString("reporter_name"), createdAt == null ? null : createdAt.toLocalDateTime()));
+        });
+    }
+
+    // SQL conditions for the filters that are set, with their values bound into params
+    public static List<String> filterConditions(CaseSearchCriteria criteria, MapSqlParameterSource params) {
+        List<String> conditions = new ArrayList<>();
+        if (criteria.getCountry() != null) {
+            conditions.add("country = :country");
+            params.addValue("country", criteria.getCountry());
+        }
+        if (criteria.getMinAmount() != null) {
+            conditions.add("amount >= :minAmount");
+            params.addValue("minAmount", criteria.getMinAmount());
+        }
+        if (criteria.getMaxAmount() != null) {
+            conditions.add("amount <= :maxAmount");
+            params.addValue("maxAmount", criteria.getMaxAmount());
+        }
+        if (criteria.getCreatedFrom() != null) {
+            conditions.add("created_at >= :createdFrom");
+            params.addValue("createdFrom", Timestamp.valueOf(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            conditions.add("created_at < :createdTo");
+            params.addValue("createdTo", Timestamp.valueOf(criteria.getCreatedTo()));
+        }
+        if (criteria.getReporter() != null) {
+            conditions.add("reporter_name = :reporter");
+            params.addValue("reporter", criteria.getReporter());
+        }
+        return conditions;
+    }
+
+    public static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    // Row-value comparison: (col, id) > (:v, :id) is one index range start on Postgres and H2
+    private static String keysetCondition(CaseSort sort, boolean descending, CaseCursor after,
+                                          MapSqlParameterSource params) {
+        String op = descending ? " < " : " > ";
+        params.addValue("afterId", after.id());
+        if (sort == CaseSort.ID) {
+            return "id" + op + ":afterId";
+        }
+        params.addValue("afterValue", sort == CaseSort.AMOUNT
+                ? new BigDecimal(after.value())
+                : Timestamp.valueOf(LocalDateTime.parse(after.value())));
+        return "(" + sort.column() + ", id)" + op + "(:afterValue, :afterId)";
+    }
+}
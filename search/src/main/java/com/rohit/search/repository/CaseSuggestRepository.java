@@ -0,0 +1,60 @@
+package com.rohit.search.repository;
+
+import com.rohit.search.dto.CaseSuggestions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Suggestion queries against the cases table. The prefix LIKE query serves
+ * suggestions only until the in-memory CaseSuggestIndex is loaded (or when
+ * it is disabled); the index itself is filled from streamSuggestColumns().
+ */
+@Repository
+public class CaseSuggestRepository {
+
+    public enum Field {
+        TITLE("title"), REPORTER("reporter_name");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    public CaseSuggestRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 @Value("${search.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    // Every case's id, title and reporter, streamed; call inside a transaction so Postgres honours the fetch size
+    public void streamSuggestColumns(RowCallbackHandler handler) {
+        streamingTemplate.query("SELECT id, title, reporter_name FROM cases", handler);
+    }
+
+    // prefix is already lower case; values are grouped case-insensitively, most cases first
+    public List<CaseSuggestions.Suggestion> suggest(Field field, String prefix, int limit) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("pattern", pattern)
+                .addValue("limit", limit);
+        String column = field.column;
+        return jdbcTemplate.query("SELECT MIN(" + column + ") AS suggestion, COUNT(*) AS n FROM cases"
+                        + " WHERE LOWER(" + column + ") LIKE :pattern ESCAPE '\\'"
+                        + " GROUP BY LOWER(" + column + ") ORDER BY n DESC, suggestion LIMIT :limit", params,
+                (rs, rowNum) -> new CaseSuggestions.Suggestion(rs.getString("suggestion"), rs.getLong("n")));
+    }
+}
@@ -0,0 +1,132 @@
+package com.rohit.search.repository;
+
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseTextHit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ranked full-text search over case title and description.
+ * On Postgres it matches the cases.search_vector GIN index (Liquibase 1.0.14)
+ * with websearch_to_tsquery, ranks with ts_rank_cd and highlights with
+ * ts_headline. Other databases (H2 in tests) have no text index and fall
+ * back to case-insensitive LIKE on every word, ranked by where the words hit.
+ */
+@Slf4j
+@Repository
+public class CaseTextSearchRepository {
+
+    private static final int MAX_TERMS = 8;
+    private static final int SNIPPET_LENGTH = 200;
+
+    // Rank and page on the index first; ts_headline is costly, so only the page's rows get it
+    private static final String POSTGRES_SQL = """
+            SELECT c.id, c.country, c.amount, c.reporter_name, c.created_at, hit.rank,
+                   ts_headline('english', c.title, hit.query,
+                               'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', HighlightAll=true') AS title,
+                   ts_headline('english', coalesce(c.description, ''), hit.query,
+                               'StartSel=' || chr(2) || ', StopSel=' || chr(3) || ', MaxFragments=2, MaxWords=25, MinWords=8') AS snippet
+            FROM (
+                SELECT id, query, ts_rank_cd(search_vector, query) AS rank
+                FROM cases, websearch_to_tsquery('english', :q) query
+                WHERE search_vector @@ query%s
+                ORDER BY rank DESC, id DESC
+                LIMIT :limit OFFSET :offset
+            ) hit
+            JOIN cases c ON c.id = hit.id
+            ORDER BY hit.rank DESC, c.id DESC
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public CaseTextSearchRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = "PostgreSQL".equals(databaseProductName(dataSource));
+        if (!postgres) {
+            log.info("No Postgres text index; full-text search falls back to LIKE matching");
+        }
+    }
+
+    public List<CaseTextHit> search(String query, CaseSearchCriteria criteria, int limit, int offset) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> filters = CaseSearchRepository.filterConditions(criteria, params);
+        params.addValue("limit", limit);
+        params.addValue("offset", offset);
+        return postgres ? searchPostgres(query, filters, params) : searchLike(query, filters, params);
+    }
+
+    private List<CaseTextHit> searchPostgres(String query, List<String> filters, MapSqlParameterSource params) {
+        params.addValue("q", query);
+        StringBuilder and = new StringBuilder();
+        filters.forEach(filter -> and.append(" AND ").append(filter));
+        return jdbcTemplate.query(POSTGRES_SQL.formatted(and), params, (rs, rowNum) -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            return new CaseTextHit(rs.getLong("id"), TextSnippets.toHtml(rs.getString("title")),
+                    rs.getString("country"), rs.getBigDecimal("amount"), rs.getString("reporter_name"),
+                    createdAt == null ? null : createdAt.toLocalDateTime(), rs.getDouble("rank"),
+                    TextSnippets.toHtml(rs.getString("snippet")));
+        });
+    }
+
+    // Every word must appear in title or description; title hits count double
+    private List<CaseTextHit> searchLike(String query, List<String> filters, MapSqlParameterSource params) {
+        List<String> terms = terms(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        List<String> conditions = new ArrayList<>(filters);
+        List<String> scores = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String pattern = "%" + terms.get(i).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            params.addValue("t" + i, pattern);
+            String inTitle = "LOWER(title) LIKE :t" + i + " ESCAPE '\\'";
+            String inDescription = "LOWER(description) LIKE :t" + i + " ESCAPE '\\'";
+            conditions.add("(" + inTitle + " OR " + inDescription + ")");
+            scores.add("(CASE WHEN " + inTitle + " THEN 2 ELSE 0 END + CASE WHEN " + inDescription + " THEN 1 ELSE 0 END)");
+        }
+        String sql = "SELECT id, title, description, country, amount, reporter_name, created_at, "
+                + String.join(" + ", scores) + " AS score FROM cases"
+                + CaseSearchRepository.where(conditions)
+                + " ORDER BY score DESC, id DESC LIMIT :limit OFFSET :offset";
+        double maxScore = 3.0 * terms.size();
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            return new CaseTextHit(rs.getLong("id"), TextSnippets.toHtml(TextSnippets.mark(rs.getString("title"), terms, 0)),
+                    rs.getString("country"), rs.getBigDecimal("amount"), rs.getString("reporter_name"),
+                    createdAt == null ? null : createdAt.toLocalDateTime(), rs.getInt("score") / maxScore,
+                    TextSnippets.toHtml(TextSnippets.mark(rs.getString("description"), terms, SNIPPET_LENGTH)));
+        });
+    }
+
+    private static List<String> terms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : TextSnippets.lowerCase(query).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && terms.size() < MAX_TERMS) {
+                terms.add(word);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static String databaseProductName(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect the database: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.rohit.search.repository;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+
+/**
+ * Builds highlighted text for full-text hits. Highlights arrive as control
+ * characters around matches (from ts_headline, or from mark() below) and
+ * become &lt;mark&gt; only after the text is HTML-escaped, so case text can
+ * never inject markup.
+ */
+final class TextSnippets {
+
+    static final String START = "\u0002";
+    static final String STOP = "\u0003";
+
+    private TextSnippets() {
+    }
+
+    static String toHtml(String marked) {
+        if (marked == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(marked).replace(START, "<mark>").replace(STOP, "</mark>");
+    }
+
+    // Mark every occurrence of the (lower-case) terms; with maxLength > 0 keep a window around the first match
+    static String mark(String text, List<String> terms, int maxLength) {
+        if (text == null) {
+            return null;
+        }
+        String lower = lowerCase(text);
+        int first = -1;
+        for (String term : terms) {
+            int at = lower.indexOf(term);
+            if (at >= 0 && (first < 0 || at < first)) {
+                first = at;
+            }
+        }
+
+        int from = 0;
+        int to = text.length();
+        if (maxLength > 0 && text.length() > maxLength) {
+            from = Math.max(0, (first < 0 ? 0 : first) - maxLength / 4);
+            to = Math.min(text.length(), from + maxLength);
+        }
+
+        StringBuilder out = new StringBuilder(to - from + 16);
+        if (from > 0) {
+            out.append("...");
+        }
+        int i = from;
+        while (i < to) {
+            int matchLength = 0;
+            for (String term : terms) {
+                if (term.length() > matchLength && lower.startsWith(term, i)) {
+                    matchLength = term.length();
+                }
+            }
+            if (matchLength > 0) {
+                int end = Math.min(to, i + matchLength);
+                out.append(START).append(text, i, end).append(STOP);
+                i = end;
+            } else {
+                out.append(text.charAt(i++));
+            }
+        }
+        if (to < text.length()) {
+            out.append("...");
+        }
+        return out.toString();
+    }
+
+    // Per-char lower case keeps offsets aligned with the original text
+    static String lowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,21 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+
+import java.util.List;
+
+/**
+ * Derived state kept current from data-service's case change feed.
+ * CaseChangePoller calls reload() at startup, after it has fixed the feed
+ * position, and again after a failed reload or onChanges(), so changes
+ * already in the reloaded data may be delivered again: onChanges() must be
+ * idempotent.
+ */
+public interface CaseChangeListener {
+
+    // Rebuild from the cases table
+    void reload();
+
+    // Apply changes in feed order
+    void onChanges(List<CaseChangeBatch.CaseChange> changes);
+}
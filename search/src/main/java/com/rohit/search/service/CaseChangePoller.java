@@ -0,0 +1,160 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Follows data-service's case change feed (GET /data/changes) and hands
+ * each batch to every CaseChangeListener, so in-memory indexes stay current
+ * without reloading the cases table.
+ *
+ * At startup the feed position is read first, from the feed's settled head
+ * (GET /data/changes/head), and the listeners reload afterwards. Whatever
+ * commits in between is in the reload and is also delivered again, which
+ * listeners tolerate.
+ *
+ * A listener whose reload or onChanges fails has missed changes, so it is
+ * reloaded at the start of the next poll, and until that succeeds it is
+ * skipped. The cursor still advances, so one broken listener does not hold
+ * back the others.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class CaseChangePoller {
+
+    private static final int MAX_PAGES_PER_POLL = 50;
+
+    private final List<CaseChangeListener> listeners;
+    private final RestClient restClient;
+    private final int batchSize;
+    private final Set<CaseChangeListener> needReload = new LinkedHashSet<>();
+
+    private volatile boolean started;
+    private long cursor;
+    private boolean failing;
+
+    public CaseChangePoller(List<CaseChangeListener> listeners,
+                            @Value("${data.service.base-url}") String dataServiceBaseUrl,
+                            @Value("${search.changes.timeout:5s}") Duration timeout,
+                            @Value("${search.changes.batch-size:1000}") int batchSize) {
+        this.listeners = listeners;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder()
+                .baseUrl(dataServiceBaseUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        cursor = settledHead();
+        for (CaseChangeListener listener : listeners) {
+            try {
+                listener.reload();
+            } catch (RuntimeException e) {
+                log.warn("Initial load of {} failed, retrying on the next poll: {}",
+                        listener.getClass().getSimpleName(), e.getMessage());
+                needReload.add(listener);
+            }
+        }
+        started = true;
+        log.info("Following case changes from cursor {}", cursor);
+    }
+
+    @Scheduled(fixedDelayString = "${search.changes.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        if (!started) {
+            return;
+        }
+        reloadFailed();
+        for (int page = 0; page < MAX_PAGES_PER_POLL; page++) {
+            CaseChangeBatch batch;
+            try {
+                batch = restClient.get()
+                        .uri("/data/changes?since={since}&limit={limit}", cursor, batchSize)
+                        .retrieve()
+                        .body(CaseChangeBatch.class);
+            } catch (RestClientException e) {
+                // One warning per outage; indexes keep serving what they have
+                if (!failing) {
+                    log.warn("Case change feed unavailable: {}", e.getMessage());
+                    failing = true;
+                }
+                return;
+            }
+            if (failing) {
+                log.info("Case change feed available again");
+                failing = false;
+            }
+            if (batch == null) {
+                return;
+            }
+
+            if (batch.getChanges() != null && !batch.getChanges().isEmpty()) {
+                for (CaseChangeListener listener : listeners) {
+                    if (needReload.contains(listener)) {
+                        continue;
+                    }
+                    try {
+                        listener.onChanges(batch.getChanges());
+                    } catch (RuntimeException e) {
+                        log.error("{} failed to apply changes up to {}, reloading it on the next poll",
+                                listener.getClass().getSimpleName(), batch.getNextCursor(), e);
+                        needReload.add(listener);
+                    }
+                }
+            }
+            cursor = batch.getNextCursor();
+            if (!batch.isHasMore()) {
+                return;
+            }
+        }
+    }
+
+    // The reload reads every change up to the cursor, as they are settled; later ones are delivered again
+    private void reloadFailed() {
+        for (Iterator<CaseChangeListener> it = needReload.iterator(); it.hasNext(); ) {
+            CaseChangeListener listener = it.next();
+            try {
+                listener.reload();
+                it.remove();
+                log.info("{} reloaded after a failure", listener.getClass().getSimpleName());
+            } catch (RuntimeException e) {
+                log.warn("Reload of {} failed, retrying on the next poll: {}",
+                        listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    // Newest change that cannot still be overtaken by a slower transaction (see data-service CaseChangeFeed)
+    private long settledHead() {
+        try {
+            Long head = restClient.get()
+                    .uri("/data/changes/head")
+                    .retrieve()
+                    .body(Long.class);
+            return head == null ? 0 : head;
+        } catch (RestClientException e) {
+            log.warn("Could not read the case change head, following from the start: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseExportRow;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.repository.CaseSearchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams matching cases out as NDJSON or CSV while they are read from a
+ * forward-only cursor, so memory use does not grow with the row count.
+ */
+@Slf4j
+@Service
+public class CaseExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER = "id,title,description,country,amount,reporter_name,created_at\r\n";
+    private static final int BUFFER_SIZE = 65536;
+
+    private final CaseSearchRepository caseSearchRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter jsonWriter;
+
+    public CaseExportService(CaseSearchRepository caseSearchRepository,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.caseSearchRepository = caseSearchRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(CaseExportRow.class);
+    }
+
+    public void export(CaseSearchCriteria criteria, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long started = System.nanoTime();
+        long[] rows = {0};
+        try {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+            }
+            readOnlyTransaction.executeWithoutResult(status -> caseSearchRepository.export(criteria, row -> {
+                try {
+                    if (format == Format.CSV) {
+                        writeCsv(writer, row);
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    // Usually the client went away; stops the query
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }));
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            log.info("Case export aborted after {} rows: {}", rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        log.info("Exported {} cases as {} in {} ms", rows[0], format, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void writeCsv(Writer writer, CaseExportRow row) throws IOException {
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writeCsvField(writer, row.title());
+        writer.write(',');
+        writeCsvField(writer, row.description());
+        writer.write(',');
+        writeCsvField(writer, row.country());
+        writer.write(',');
+        if (row.amount() != null) {
+            writer.write(row.amount().toPlainString());
+        }
+        writer.write(',');
+        writeCsvField(writer, row.reporterName());
+        writer.write(',');
+        if (row.createdAt() != null) {
+            writer.write(row.createdAt().toString());
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180: quote fields containing a delimiter, quote or line break, doubling inner quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
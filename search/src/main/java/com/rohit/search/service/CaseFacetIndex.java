@@ -0,0 +1,256 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.FacetCounts;
+import com.rohit.search.repository.CaseFacetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory column store of the case fields facets filter and group on:
+ * country and reporter as dictionary codes, amount, created_at. About 22
+ * bytes per case, so a few million cases fit in tens of MB and any filter
+ * combination is one tight scan over primitive arrays, without touching
+ * the database.
+ *
+ * Loaded once at startup and extended from the case change feed. Cases are
+ * never deleted, and already-known ids are skipped, so replays are harmless.
+ * An UPDATED change triggers a full reload; no service updates cases today.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class CaseFacetIndex implements CaseChangeListener {
+
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int ABSENT = -2;
+
+    private final CaseFacetRepository caseFacetRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns = new Columns();
+    private volatile boolean ready;
+
+    public CaseFacetIndex(CaseFacetRepository caseFacetRepository, PlatformTransactionManager transactionManager) {
+        this.caseFacetRepository = caseFacetRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void reload() {
+        long started = System.nanoTime();
+        Columns fresh = new Columns();
+        readOnlyTransaction.executeWithoutResult(status -> caseFacetRepository.streamFacetColumns(rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            fresh.add(rs.getLong("id"), rs.getString("country"), rs.getBigDecimal("amount"),
+                    rs.getString("reporter_name"), createdAt == null ? null : createdAt.toLocalDateTime());
+        }));
+        fresh.ids.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            columns = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        log.info("Facet index loaded {} cases (~{} MB) in {} ms", fresh.size, fresh.estimatedBytes() / (1024 * 1024),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public void onChanges(List<CaseChangeBatch.CaseChange> changes) {
+        if (changes.stream().anyMatch(change -> !"CREATED".equals(change.type()))) {
+            reload();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (CaseChangeBatch.CaseChange change : changes) {
+                CaseChangeBatch.ChangedCase c = change.caseData();
+                if (c != null && c.id() != null) {
+                    columns.add(c.id(), c.country(), c.amount(), c.reporterName(), c.createdAt());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetCounts aggregate(CaseSearchCriteria criteria, List<BigDecimal> amountEdges) {
+        double[] edges = amountEdges.stream().mapToDouble(BigDecimal::doubleValue).toArray();
+        double minAmount = criteria.getMinAmount() == null ? Double.NEGATIVE_INFINITY : criteria.getMinAmount().doubleValue();
+        double maxAmount = criteria.getMaxAmount() == null ? Double.POSITIVE_INFINITY : criteria.getMaxAmount().doubleValue();
+        boolean amountFiltered = criteria.getMinAmount() != null || criteria.getMaxAmount() != null;
+        long createdFrom = criteria.getCreatedFrom() == null ? Long.MIN_VALUE : micros(criteria.getCreatedFrom());
+        long createdTo = criteria.getCreatedTo() == null ? Long.MAX_VALUE : micros(criteria.getCreatedTo());
+        boolean createdFiltered = criteria.getCreatedFrom() != null || criteria.getCreatedTo() != null;
+
+        lock.readLock().lock();
+        try {
+            Columns cols = columns;
+            int country = criteria.getCountry() == null ? -1 : cols.countries.codeOf(criteria.getCountry());
+            int reporter = criteria.getReporter() == null ? -1 : cols.reporters.codeOf(criteria.getReporter());
+            if (country == ABSENT || reporter == ABSENT) {
+                return new FacetCounts(0, Map.of(), new long[edges.length + 1], new TreeMap<>());
+            }
+
+            long total = 0;
+            long[] countryCounts = new long[cols.countries.size()];
+            long[] amountCounts = new long[edges.length + 1];
+            long[] dayCounts = new long[cols.maxDay < cols.minDay ? 0 : (int) (cols.maxDay - cols.minDay + 1)];
+            for (int i = 0; i < cols.size; i++) {
+                if (country >= 0 && cols.country[i] != country) {
+                    continue;
+                }
+                if (reporter >= 0 && cols.reporter[i] != reporter) {
+                    continue;
+                }
+                double amount = cols.amount[i];
+                // NaN (no amount) fails both comparisons, like NULL in SQL
+                if (amountFiltered && !(amount >= minAmount && amount <= maxAmount)) {
+                    continue;
+                }
+                long created = cols.created[i];
+                if (createdFiltered && (created == NO_DATE || created < createdFrom || created >= createdTo)) {
+                    continue;
+                }
+
+                total++;
+                countryCounts[cols.country[i]]++;
+                if (!Double.isNaN(amount)) {
+                    int at = Arrays.binarySearch(edges, amount);
+                    amountCounts[at >= 0 ? at + 1 : -at - 1]++;
+                }
+                if (created != NO_DATE) {
+                    dayCounts[(int) (Math.floorDiv(created, MICROS_PER_DAY) - cols.minDay)]++;
+                }
+            }
+
+            Map<String, Long> countries = new HashMap<>();
+            for (int code = 0; code < countryCounts.length; code++) {
+                if (countryCounts[code] > 0) {
+                    countries.put(cols.countries.valueOf(code), countryCounts[code]);
+                }
+            }
+            SortedMap<Long, Long> days = new TreeMap<>();
+            for (int d = 0; d < dayCounts.length; d++) {
+                if (dayCounts[d] > 0) {
+                    days.put(cols.minDay + d, dayCounts[d]);
+                }
+            }
+            return new FacetCounts(total, countries, amountCounts, days);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // created_at as microseconds on a UTC-naive scale, matching timestamp precision
+    private static long micros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), dateTime);
+    }
+
+    // Column arrays grown by doubling; only the poller thread writes, under the write lock
+    private static final class Columns {
+
+        final Roaring64NavigableMap ids = new Roaring64NavigableMap();
+        final Dictionary countries = new Dictionary();
+        final Dictionary reporters = new Dictionary();
+        short[] country = new short[1024];
+        double[] amount = new double[1024];
+        long[] created = new long[1024];
+        int[] reporter = new int[1024];
+        int size;
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+
+        void add(long id, String countryCode, BigDecimal amountValue, String reporterName, LocalDateTime createdAt) {
+            if (ids.contains(id)) {
+                return;
+            }
+            ids.addLong(id);
+            if (size == country.length) {
+                int capacity = size * 2;
+                country = Arrays.copyOf(country, capacity);
+                amount = Arrays.copyOf(amount, capacity);
+                created = Arrays.copyOf(created, capacity);
+                reporter = Arrays.copyOf(reporter, capacity);
+            }
+            int countryCodeIndex = countries.codeFor(countryCode);
+            if (countryCodeIndex > Short.MAX_VALUE) {
+                throw new IllegalStateException("More distinct countries than the facet index can hold");
+            }
+            country[size] = (short) countryCodeIndex;
+            amount[size] = amountValue == null ? Double.NaN : amountValue.doubleValue();
+            reporter[size] = reporters.codeFor(reporterName);
+            if (createdAt == null) {
+                created[size] = NO_DATE;
+            } else {
+                long micros = micros(createdAt);
+                long day = Math.floorDiv(micros, MICROS_PER_DAY);
+                created[size] = micros;
+                minDay = Math.min(minDay, day);
+                maxDay = Math.max(maxDay, day);
+            }
+            size++;
+        }
+
+        long estimatedBytes() {
+            return (long) country.length * (2 + 8 + 8 + 4) + ids.getLongSizeInBytes();
+        }
+    }
+
+    // Distinct strings (null included) numbered in first-seen order
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int codeFor(String value) {
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int codeOf(String value) {
+            Integer code = codes.get(value);
+            return code == null ? ABSENT : code;
+        }
+
+        String valueOf(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
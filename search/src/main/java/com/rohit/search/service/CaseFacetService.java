@@ -0,0 +1,76 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseFacets;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.FacetCounts;
+import com.rohit.search.dto.FacetInterval;
+import com.rohit.search.repository.CaseFacetRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class CaseFacetService {
+
+    private final CaseFacetIndex caseFacetIndex;                // null when the change feed is disabled
+    private final CaseFacetRepository caseFacetRepository;
+    private final List<BigDecimal> amountEdges;
+
+    public CaseFacetService(ObjectProvider<CaseFacetIndex> caseFacetIndex,
+                            CaseFacetRepository caseFacetRepository,
+                            @Value("${search.facets.amount-buckets}") List<BigDecimal> amountEdges) {
+        this.caseFacetIndex = caseFacetIndex.getIfAvailable();
+        this.caseFacetRepository = caseFacetRepository;
+        this.amountEdges = amountEdges.stream().sorted().distinct().toList();
+    }
+
+    // Served from the in-memory index once it is loaded, from GROUP BY queries until then
+    public CaseFacets facets(CaseSearchCriteria criteria, String intervalParam) {
+        FacetInterval interval;
+        try {
+            interval = FacetInterval.fromParam(intervalParam);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        FacetCounts counts = caseFacetIndex != null && caseFacetIndex.isReady()
+                ? caseFacetIndex.aggregate(criteria, amountEdges)
+                : caseFacetRepository.aggregate(criteria, amountEdges);
+
+        CaseFacets facets = new CaseFacets();
+        facets.setTotal(counts.total());
+        facets.setCountries(counts.countries().entrySet().stream()
+                .map(e -> new CaseFacets.CountryCount(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(CaseFacets.CountryCount::count).reversed()
+                        .thenComparing(CaseFacets.CountryCount::country, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList());
+
+        List<CaseFacets.AmountBucket> amounts = new ArrayList<>(counts.amounts().length);
+        for (int i = 0; i < counts.amounts().length; i++) {
+            BigDecimal from = i == 0 ? null : amountEdges.get(i - 1);
+            BigDecimal to = i == amountEdges.size() ? null : amountEdges.get(i);
+            amounts.add(new CaseFacets.AmountBucket(from, to, counts.amounts()[i]));
+        }
+        facets.setAmounts(amounts);
+
+        facets.setInterval(interval.param());
+        TreeMap<LocalDate, Long> created = new TreeMap<>();
+        for (Map.Entry<Long, Long> day : counts.days().entrySet()) {
+            created.merge(interval.bucketStart(LocalDate.ofEpochDay(day.getKey())), day.getValue(), Long::sum);
+        }
+        facets.setCreated(created.entrySet().stream()
+                .map(e -> new CaseFacets.DateBucket(e.getKey(), e.getValue()))
+                .toList());
+        return facets;
+    }
+}
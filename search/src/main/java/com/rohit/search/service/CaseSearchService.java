@@ -1,21 +1,146 @@
 package com.rohit.search.service;
 
-import com.rohit.search.entity.Case;
-import com.rohit.search.repository.CaseRepository;
+import com.rohit.search.dto.CaseCursor;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseSearchPage;
+import com.rohit.search.dto.CaseSort;
+import com.rohit.search.dto.CaseSummary;
+import com.rohit.search.dto.CaseTextHit;
+import com.rohit.search.dto.CaseTextPage;
+import com.rohit.search.repository.CaseSearchRepository;
+import com.rohit.search.repository.CaseTextSearchRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
 @Service
 public class CaseSearchService {
 
-    private final CaseRepository caseRepository;
+    private final CaseSearchRepository caseSearchRepository;
+    private final CaseTextSearchRepository caseTextSearchRepository;
+    private final SearchResultCache searchResultCache;          // null when caching is off
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int textPageSize;
+    private final int textMaxResults;
 
-    public CaseSearchService(CaseRepository caseRepository) {
-        this.caseRepository = caseRepository;
+    public CaseSearchService(CaseSearchRepository caseSearchRepository,
+                             CaseTextSearchRepository caseTextSearchRepository,
+                             ObjectProvider<SearchResultCache> searchResultCache,
+                             @Value("${search.page.default-size:50}") int defaultPageSize,
+                             @Value("${search.page.max-size:500}") int maxPageSize,
+                             @Value("${search.text.page-size:20}") int textPageSize,
+                             @Value("${search.text.max-results:1000}") int textMaxResults) {
+        this.caseSearchRepository = caseSearchRepository;
+        this.caseTextSearchRepository = caseTextSearchRepository;
+        this.searchResultCache = searchResultCache.getIfAvailable();
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.textPageSize = textPageSize;
+        this.textMaxResults = textMaxResults;
     }
 
-    public List<Case> getAllCases() {
-        return caseRepository.findAll();
+    public CaseSearchPage search(CaseSearchCriteria criteria, String sortParam, String order,
+                                 String cursor, Integer size, boolean bypassCache) {
+        CaseSort sort;
+        CaseCursor after;
+        try {
+            sort = CaseSort.fromParam(sortParam);
+            after = cursor == null || cursor.isBlank() ? null : CaseCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        boolean descending = !"asc".equalsIgnoreCase(order);
+        if (after != null && (after.sort() != sort || after.descending() != descending)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor was issued for a different sort");
+        }
+        int limit = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+
+        if (searchResultCache == null) {
+            return loadPage(criteria, sort, descending, after, limit);
+        }
+        SearchResultCache.Key key = SearchResultCache.Key.list(criteria, sort.param(), descending, cursor, limit);
+        return searchResultCache.get(key, bypassCache, () -> loadPage(criteria, sort, descending, after, limit),
+                CaseSearchService::weigh);
+    }
+
+    private CaseSearchPage loadPage(CaseSearchCriteria criteria, CaseSort sort, boolean descending,
+                                    CaseCursor after, int limit) {
+        // One extra row tells us whether there is a next page
+        List<CaseSummary> rows = caseSearchRepository.search(criteria, sort, descending, after, limit + 1);
+
+        CaseSearchPage page = new CaseSearchPage();
+        if (rows.size() > limit) {
+            rows = List.copyOf(rows.subList(0, limit));
+            CaseSummary last = rows.get(limit - 1);
+            page.setNextCursor(new CaseCursor(sort, descending, sortValue(sort, last), last.id()).encode());
+        }
+        page.setItems(rows);
+        return page;
+    }
+
+    // Relevance-ordered pages; offset paging, but never deeper than max-results
+    public CaseTextPage searchText(String query, CaseSearchCriteria criteria, int page, Integer size,
+                                   boolean bypassCache) {
+        if (query == null || query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q is required");
+        }
+        int limit = size == null ? textPageSize : Math.max(1, Math.min(size, maxPageSize));
+        long offset = (long) Math.max(page, 0) * limit;
+        if (offset + limit > textMaxResults) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Only the first " + textMaxResults + " results can be paged; refine the query");
+        }
+
+        if (searchResultCache == null) {
+            return loadTextPage(query, criteria, page, limit, offset);
+        }
+        SearchResultCache.Key key = SearchResultCache.Key.text(criteria, query, limit, offset);
+        return searchResultCache.get(key, bypassCache, () -> loadTextPage(query, criteria, page, limit, offset),
+                CaseSearchService::weigh);
+    }
+
+    private CaseTextPage loadTextPage(String query, CaseSearchCriteria criteria, int page, int limit, long offset) {
+        List<CaseTextHit> hits = caseTextSearchRepository.search(query, criteria, limit + 1, (int) offset);
+        CaseTextPage result = new CaseTextPage();
+        result.setPage(Math.max(page, 0));
+        result.setSize(limit);
+        result.setHasMore(hits.size() > limit);
+        result.setItems(List.copyOf(hits.size() > limit ? hits.subList(0, limit) : hits));
+        return result;
+    }
+
+    // Rough retained bytes of a cached page: object overhead plus two bytes per string char
+    private static int weigh(CaseSearchPage page) {
+        int bytes = 128 + length(page.getNextCursor());
+        for (CaseSummary row : page.getItems()) {
+            bytes += 160 + length(row.title()) + length(row.country()) + length(row.reporterName());
+        }
+        return bytes;
+    }
+
+    private static int weigh(CaseTextPage page) {
+        int bytes = 128;
+        for (CaseTextHit hit : page.getItems()) {
+            bytes += 176 + length(hit.title()) + length(hit.country()) + length(hit.reporterName())
+                    + length(hit.snippet());
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+
+    private static String sortValue(CaseSort sort, CaseSummary row) {
+        return switch (sort) {
+            case CREATED_AT -> row.createdAt().toString();
+            case AMOUNT -> row.amount().toPlainString();
+            case ID -> "";
+        };
     }
 }
@@ -0,0 +1,186 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import com.rohit.search.dto.CaseSuggestions;
+import com.rohit.search.repository.CaseSuggestRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory typeahead index over case titles and reporter names: each
+ * distinct value (case and spacing ignored) with the number of cases that
+ * have it, in a compact PrefixIndex, so a keystroke costs two binary
+ * searches and a few segment tree walks instead of a LIKE scan.
+ *
+ * Loaded once at startup. Values from the case change feed go to a small
+ * pending map that lookups merge in, and are folded into a new PrefixIndex
+ * once there are merge-threshold of them. Already-known ids are skipped, so
+ * replays are harmless. An UPDATED change triggers a full reload; no
+ * service updates cases today.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class CaseSuggestIndex implements CaseChangeListener {
+
+    // Merged index plus values added since; swapped as a whole so lookups never count a value twice
+    private record Values(PrefixIndex merged, ConcurrentNavigableMap<String, PrefixIndex.Entry> pending) {
+
+        static Values of(PrefixIndex merged) {
+            return new Values(merged, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    private final CaseSuggestRepository caseSuggestRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int mergeThreshold;
+
+    private volatile Values titles = Values.of(PrefixIndex.EMPTY);
+    private volatile Values reporters = Values.of(PrefixIndex.EMPTY);
+    private Roaring64NavigableMap ids = new Roaring64NavigableMap();    // poller thread only
+    private volatile long idBytes;
+    private volatile boolean ready;
+
+    public CaseSuggestIndex(CaseSuggestRepository caseSuggestRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${search.suggest.merge-threshold:20000}") int mergeThreshold) {
+        this.caseSuggestRepository = caseSuggestRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.mergeThreshold = mergeThreshold;
+
+        Gauge.builder("search.suggest.index.entries", this, index -> index.titles.merged().size()
+                        + index.reporters.merged().size())
+                .description("Distinct titles and reporter names in the suggestion index")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.index.bytes", this, CaseSuggestIndex::estimatedBytes)
+                .description("Estimated heap held by the suggestion index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public synchronized void reload() {
+        long started = System.nanoTime();
+        Roaring64NavigableMap freshIds = new Roaring64NavigableMap();
+        Map<String, PrefixIndex.Entry> titleCounts = new HashMap<>();
+        Map<String, PrefixIndex.Entry> reporterCounts = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> caseSuggestRepository.streamSuggestColumns(rs -> {
+            freshIds.addLong(rs.getLong("id"));
+            count(titleCounts, rs.getString("title"));
+            count(reporterCounts, rs.getString("reporter_name"));
+        }));
+        freshIds.runOptimize();
+
+        ids = freshIds;
+        idBytes = freshIds.getLongSizeInBytes();
+        titles = Values.of(PrefixIndex.of(titleCounts.values()));
+        reporters = Values.of(PrefixIndex.of(reporterCounts.values()));
+        ready = true;
+        log.info("Suggestion index loaded {} titles and {} reporters from {} cases (~{} MB) in {} ms",
+                titles.merged().size(), reporters.merged().size(), freshIds.getLongCardinality(),
+                estimatedBytes() / (1024 * 1024), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Override
+    public synchronized void onChanges(List<CaseChangeBatch.CaseChange> changes) {
+        if (changes.stream().anyMatch(change -> !"CREATED".equals(change.type()))) {
+            reload();
+            return;
+        }
+        Values t = titles;
+        Values r = reporters;
+        for (CaseChangeBatch.CaseChange change : changes) {
+            CaseChangeBatch.ChangedCase c = change.caseData();
+            if (c == null || c.id() == null || ids.contains(c.id())) {
+                continue;
+            }
+            ids.addLong(c.id());
+            count(t.pending(), c.title());
+            count(r.pending(), c.reporterName());
+        }
+        titles = mergeIfFull(t);
+        reporters = mergeIfFull(r);
+        idBytes = ids.getLongSizeInBytes();
+    }
+
+    // Up to limit titles starting with prefix, most cases first; prefix must be normalized
+    public List<CaseSuggestions.Suggestion> titles(String prefix, int limit) {
+        return top(titles, prefix, limit);
+    }
+
+    public List<CaseSuggestions.Suggestion> reporters(String prefix, int limit) {
+        return top(reporters, prefix, limit);
+    }
+
+    private static List<CaseSuggestions.Suggestion> top(Values values, String prefix, int limit) {
+        List<CaseSuggestions.Suggestion> merged = values.merged().top(prefix, limit);
+        ConcurrentNavigableMap<String, PrefixIndex.Entry> pending = values.pending().tailMap(prefix);
+        if (pending.isEmpty() || !pending.firstKey().startsWith(prefix)) {
+            return merged;
+        }
+
+        // A pending value adds to the same key's merged count. A merged value pushed into the top
+        // only by its pending cases is missed until the next merge; counts only order suggestions.
+        Map<String, CaseSuggestions.Suggestion> combined = new LinkedHashMap<>();
+        for (CaseSuggestions.Suggestion s : merged) {
+            String key = PrefixIndex.normalize(s.text());
+            PrefixIndex.Entry added = values.pending().get(key);
+            combined.put(key, added == null ? s : new CaseSuggestions.Suggestion(s.text(), s.count() + added.count()));
+        }
+        for (PrefixIndex.Entry entry : pending.values()) {
+            if (!entry.key().startsWith(prefix)) {
+                break;
+            }
+            combined.computeIfAbsent(entry.key(), key -> new CaseSuggestions.Suggestion(entry.display(),
+                    (long) values.merged().count(key) + entry.count()));
+        }
+        return combined.values().stream()
+                .sorted(Comparator.comparingLong(CaseSuggestions.Suggestion::count).reversed()
+                        .thenComparing(s -> PrefixIndex.normalize(s.text())))
+                .limit(limit)
+                .toList();
+    }
+
+    private Values mergeIfFull(Values values) {
+        if (values.pending().size() < mergeThreshold) {
+            return values;
+        }
+        return Values.of(values.merged().plus(values.pending().values()));
+    }
+
+    private long estimatedBytes() {
+        // Pending values are few and short-lived; ~100 bytes each is close enough
+        return titles.merged().estimatedBytes() + reporters.merged().estimatedBytes()
+                + 100L * (titles.pending().size() + reporters.pending().size()) + idBytes;
+    }
+
+    private static void count(Map<String, PrefixIndex.Entry> counts, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String key = PrefixIndex.normalize(value);
+        counts.merge(key, new PrefixIndex.Entry(key, value.strip(), 1),
+                (known, one) -> new PrefixIndex.Entry(key, known.display(), known.count() + 1));
+    }
+}
@@ -0,0 +1,76 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseSuggestions;
+import com.rohit.search.repository.CaseSuggestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@Service
+public class CaseSuggestService {
+
+    private static final int MAX_PREFIX_LENGTH = 100;
+
+    private final CaseSuggestIndex caseSuggestIndex;            // null when the change feed is disabled
+    private final CaseSuggestRepository caseSuggestRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final Timer lookups;
+
+    public CaseSuggestService(ObjectProvider<CaseSuggestIndex> caseSuggestIndex,
+                              CaseSuggestRepository caseSuggestRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${search.suggest.default-limit:10}") int defaultLimit,
+                              @Value("${search.suggest.max-limit:50}") int maxLimit) {
+        this.caseSuggestIndex = caseSuggestIndex.getIfAvailable();
+        this.caseSuggestRepository = caseSuggestRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.lookups = Timer.builder("search.suggest.lookup")
+                .description("Latency of one GET /search/suggest")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Served from the in-memory index once it is loaded, from prefix LIKE queries until then
+    public CaseSuggestions suggest(String prefixParam, String field, Integer limitParam) {
+        if (prefixParam == null || prefixParam.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "prefix is required");
+        }
+        if (prefixParam.length() > MAX_PREFIX_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "prefix must be at most " + MAX_PREFIX_LENGTH + " characters");
+        }
+        boolean titles = "all".equalsIgnoreCase(field) || "title".equalsIgnoreCase(field);
+        boolean reporters = "all".equalsIgnoreCase(field) || "reporter".equalsIgnoreCase(field);
+        if (!titles && !reporters) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "field must be one of: title, reporter, all");
+        }
+        int limit = limitParam == null ? defaultLimit : Math.max(1, Math.min(limitParam, maxLimit));
+        // Keep the trailing space of "john " so it only matches a next word
+        String prefix = PrefixIndex.normalize(prefixParam) + (Character.isWhitespace(prefixParam.charAt(prefixParam.length() - 1)) ? " " : "");
+
+        return lookups.record(() -> {
+            CaseSuggestions suggestions = new CaseSuggestions();
+            suggestions.setPrefix(prefix);
+            suggestions.setTitles(titles ? lookup(CaseSuggestRepository.Field.TITLE, prefix, limit) : List.of());
+            suggestions.setReporters(reporters ? lookup(CaseSuggestRepository.Field.REPORTER, prefix, limit) : List.of());
+            return suggestions;
+        });
+    }
+
+    private List<CaseSuggestions.Suggestion> lookup(CaseSuggestRepository.Field field, String prefix, int limit) {
+        if (caseSuggestIndex == null || !caseSuggestIndex.isReady()) {
+            return caseSuggestRepository.suggest(field, prefix, limit);
+        }
+        return field == CaseSuggestRepository.Field.TITLE
+                ? caseSuggestIndex.titles(prefix, limit)
+                : caseSuggestIndex.reporters(prefix, limit);
+    }
+}
@@ -0,0 +1,279 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseSuggestions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable sorted array of normalized keys packed into one UTF-8 byte pool,
+ * with each key's display form and case count. A prefix is a contiguous
+ * range found by two binary searches; a max segment tree over the counts
+ * then yields the k most used keys of that range in O(k log n), however
+ * wide the range is. Costs the key bytes (plus display bytes where the
+ * display form differs) and 20-28 bytes per entry.
+ */
+final class PrefixIndex {
+
+    static final PrefixIndex EMPTY = of(List.of());
+
+    // One distinct value; the key must be normalize(display)
+    record Entry(String key, String display, int count) {
+    }
+
+    private record Encoded(byte[] key, byte[] display, int count) {
+    }
+
+    private final byte[] keyPool;
+    private final int[] keyOffsets;         // n + 1
+    private final byte[] displayPool;       // empty slice when the display form is the key
+    private final int[] displayOffsets;     // n + 1
+    private final int[] counts;
+    private final int[] tree;               // index of the max count per node, 1-based heap layout
+    private final int size;
+
+    private PrefixIndex(Builder builder) {
+        size = builder.size;
+        keyPool = trim(builder.keyPool, builder.keyOffsets[size]);
+        keyOffsets = trim(builder.keyOffsets, size + 1);
+        displayPool = trim(builder.displayPool, builder.displayOffsets[size]);
+        displayOffsets = trim(builder.displayOffsets, size + 1);
+        counts = trim(builder.counts, size);
+        tree = new int[size <= 1 ? 2 : 2 * Integer.highestOneBit(size - 1) * 2];
+        if (size > 0) {
+            build(1, 0, size - 1);
+        }
+    }
+
+    // Entries in any order, keys distinct
+    static PrefixIndex of(Collection<Entry> entries) {
+        Encoded[] encoded = encode(entries);
+        Builder builder = new Builder(encoded.length, keyBytes(encoded), displayBytes(encoded));
+        for (Encoded e : encoded) {
+            builder.add(e.key(), 0, e.key().length, e.display(), 0, e.display().length, e.count());
+        }
+        return new PrefixIndex(builder);
+    }
+
+    // A new index with additions merged in, counts summed for keys already present; one linear pass
+    PrefixIndex plus(Collection<Entry> additions) {
+        Encoded[] added = encode(additions);
+        Builder builder = new Builder(size + added.length, keyPool.length + keyBytes(added),
+                displayPool.length + displayBytes(added));
+        int i = 0;
+        int j = 0;
+        while (i < size || j < added.length) {
+            int cmp = i == size ? 1 : j == added.length ? -1
+                    : Arrays.compareUnsigned(keyPool, keyOffsets[i], keyOffsets[i + 1], added[j].key(), 0, added[j].key().length);
+            if (cmp > 0) {
+                Encoded e = added[j++];
+                builder.add(e.key(), 0, e.key().length, e.display(), 0, e.display().length, e.count());
+            } else {
+                int count = cmp == 0 ? saturatedAdd(counts[i], added[j++].count()) : counts[i];
+                builder.add(keyPool, keyOffsets[i], keyOffsets[i + 1] - keyOffsets[i],
+                        displayPool, displayOffsets[i], displayOffsets[i + 1] - displayOffsets[i], count);
+                i++;
+            }
+        }
+        return new PrefixIndex(builder);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long estimatedBytes() {
+        return keyPool.length + displayPool.length
+                + 4L * (keyOffsets.length + displayOffsets.length + counts.length + tree.length);
+    }
+
+    // Count for an exact key, 0 if absent
+    int count(String key) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        int i = lowerBound(k);
+        return i < size && compareAt(i, k, false) == 0 ? counts[i] : 0;
+    }
+
+    // Up to limit entries whose key starts with prefix, most cases first
+    List<CaseSuggestions.Suggestion> top(String prefix, int limit) {
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(p);
+        int to = prefixEnd(p, from);
+        List<CaseSuggestions.Suggestion> result = new ArrayList<>(Math.min(limit, to - from));
+        if (from >= to) {
+            return result;
+        }
+
+        // Each queued range is {lo, hi, index of its max}; taking the max splits the range around it
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> counts[a[2]] != counts[b[2]]
+                ? Integer.compare(counts[b[2]], counts[a[2]]) : Integer.compare(a[2], b[2]));
+        ranges.add(new int[]{from, to - 1, maxIndex(from, to - 1)});
+        while (!ranges.isEmpty() && result.size() < limit) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            result.add(new CaseSuggestions.Suggestion(display(best), counts[best]));
+            if (range[0] < best) {
+                ranges.add(new int[]{range[0], best - 1, maxIndex(range[0], best - 1)});
+            }
+            if (best < range[1]) {
+                ranges.add(new int[]{best + 1, range[1], maxIndex(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    // Trim, collapse whitespace and lower-case, so lookups ignore case and spacing
+    static String normalize(String value) {
+        return value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private String display(int i) {
+        int start = displayOffsets[i];
+        int length = displayOffsets[i + 1] - start;
+        return length == 0
+                ? new String(keyPool, keyOffsets[i], keyOffsets[i + 1] - keyOffsets[i], StandardCharsets.UTF_8)
+                : new String(displayPool, start, length, StandardCharsets.UTF_8);
+    }
+
+    private int lowerBound(byte[] k) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareAt(mid, k, false) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index at or after from whose key does not start with p
+    private int prefixEnd(byte[] p, int from) {
+        int lo = from;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareAt(mid, p, true) == 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Compare key i with k in unsigned byte order; with asPrefix, a key starting with k compares equal
+    private int compareAt(int i, byte[] k, boolean asPrefix) {
+        int start = keyOffsets[i];
+        int end = keyOffsets[i + 1];
+        if (asPrefix && end - start >= k.length) {
+            end = start + k.length;
+        }
+        return Arrays.compareUnsigned(keyPool, start, end, k, 0, k.length);
+    }
+
+    private void build(int node, int lo, int hi) {
+        if (lo == hi) {
+            tree[node] = lo;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        build(2 * node, lo, mid);
+        build(2 * node + 1, mid + 1, hi);
+        tree[node] = larger(tree[2 * node], tree[2 * node + 1]);
+    }
+
+    private int maxIndex(int from, int to) {
+        return maxIndex(1, 0, size - 1, from, to);
+    }
+
+    private int maxIndex(int node, int lo, int hi, int from, int to) {
+        if (from <= lo && hi <= to) {
+            return tree[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        if (to <= mid) {
+            return maxIndex(2 * node, lo, mid, from, to);
+        }
+        if (from > mid) {
+            return maxIndex(2 * node + 1, mid + 1, hi, from, to);
+        }
+        return larger(maxIndex(2 * node, lo, mid, from, to), maxIndex(2 * node + 1, mid + 1, hi, from, to));
+    }
+
+    // Ties go to the earlier key, so equal counts come out alphabetically
+    private int larger(int left, int right) {
+        return counts[right] > counts[left] ? right : left;
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        long sum = (long) a + b;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    private static byte[] trim(byte[] array, int length) {
+        return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+
+    private static int[] trim(int[] array, int length) {
+        return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+
+    private static int keyBytes(Encoded[] encoded) {
+        return Arrays.stream(encoded).mapToInt(e -> e.key().length).sum();
+    }
+
+    private static int displayBytes(Encoded[] encoded) {
+        return Arrays.stream(encoded).mapToInt(e -> e.display().length).sum();
+    }
+
+    // UTF-8 once per entry, sorted in the unsigned byte order the pool is searched in
+    private static Encoded[] encode(Collection<Entry> entries) {
+        Encoded[] encoded = new Encoded[entries.size()];
+        int n = 0;
+        for (Entry entry : entries) {
+            byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+            byte[] display = entry.display().equals(entry.key()) ? new byte[0] : entry.display().getBytes(StandardCharsets.UTF_8);
+            encoded[n++] = new Encoded(key, display, entry.count());
+        }
+        Arrays.parallelSort(encoded, (a, b) -> Arrays.compareUnsigned(a.key(), b.key()));
+        return encoded;
+    }
+
+    // Append-only arrays sized for the most the caller can add, so the finished index usually reuses them
+    private static final class Builder {
+
+        final byte[] keyPool;
+        final byte[] displayPool;
+        final int[] keyOffsets;
+        final int[] displayOffsets;
+        final int[] counts;
+        int size;
+
+        Builder(int capacity, int keyBytes, int displayBytes) {
+            keyPool = new byte[keyBytes];
+            displayPool = new byte[displayBytes];
+            keyOffsets = new int[capacity + 1];
+            displayOffsets = new int[capacity + 1];
+            counts = new int[capacity];
+        }
+
+        void add(byte[] key, int keyStart, int keyLength, byte[] display, int displayStart, int displayLength, int count) {
+            int keyEnd = keyOffsets[size];
+            System.arraycopy(key, keyStart, keyPool, keyEnd, keyLength);
+            int displayEnd = displayOffsets[size];
+            System.arraycopy(display, displayStart, displayPool, displayEnd, displayLength);
+            counts[size] = count;
+            size++;
+            keyOffsets[size] = keyEnd + keyLength;
+            displayOffsets[size] = displayEnd + displayLength;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.rohit.search.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohit.search.dto.CaseChangeBatch;
+import com.rohit.search.dto.CaseSearchCriteria;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache of search results keyed by the normalized query, bounded by the
+ * estimated bytes of the cached pages.
+ *
+ * Entries are evicted precisely from the case change feed: a new case evicts
+ * the entries whose filters it matches and leaves the rest alone. An
+ * UPDATED change, whose old values are unknown, clears everything. A result
+ * computed while changes were being applied is returned but not stored, so
+ * an invalidation cannot be overwritten by a query that started before it:
+ * stores check the epoch under the read lock, invalidations bump it and
+ * evict under the write lock. The TTL is only a backstop. Without the
+ * change feed there is no invalidation signal and the cache is not created.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = {"search.changes.enabled", "search.cache.enabled"}, havingValue = "true", matchIfMissing = true)
+public class SearchResultCache implements CaseChangeListener {
+
+    public enum Kind { LIST, TEXT }
+
+    /**
+     * Normalized query: amounts without trailing zeros and text queries in
+     * lower case with single spaces, so equivalent requests share an entry.
+     */
+    public record Key(Kind kind, String country, BigDecimal minAmount, BigDecimal maxAmount,
+                      LocalDateTime createdFrom, LocalDateTime createdTo, String reporter,
+                      String query, String sort, boolean descending, String cursor, int limit, long offset) {
+
+        public static Key list(CaseSearchCriteria c, String sort, boolean descending, String cursor, int limit) {
+            return new Key(Kind.LIST, c.getCountry(), normalize(c.getMinAmount()), normalize(c.getMaxAmount()),
+                    c.getCreatedFrom(), c.getCreatedTo(), c.getReporter(), null, sort, descending, cursor, limit, 0);
+        }
+
+        public static Key text(CaseSearchCriteria c, String query, int limit, long offset) {
+            String normalized = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            return new Key(Kind.TEXT, c.getCountry(), normalize(c.getMinAmount()), normalize(c.getMaxAmount()),
+                    c.getCreatedFrom(), c.getCreatedTo(), c.getReporter(), normalized, null, false, null, limit, offset);
+        }
+
+        private static BigDecimal normalize(BigDecimal amount) {
+            return amount == null ? null : amount.stripTrailingZeros();
+        }
+
+        // Whether a case with these values could appear in this result
+        boolean matches(CaseChangeBatch.ChangedCase c) {
+            if (country != null && !country.equals(c.country())) {
+                return false;
+            }
+            if (reporter != null && !reporter.equals(c.reporterName())) {
+                return false;
+            }
+            if (minAmount != null && (c.amount() == null || c.amount().compareTo(minAmount) < 0)) {
+                return false;
+            }
+            if (maxAmount != null && (c.amount() == null || c.amount().compareTo(maxAmount) > 0)) {
+                return false;
+            }
+            if (createdFrom != null && (c.createdAt() == null || c.createdAt().isBefore(createdFrom))) {
+                return false;
+            }
+            return createdTo == null || (c.createdAt() != null && c.createdAt().isBefore(createdTo));
+        }
+    }
+
+    private record Entry(Object value, int weight) {
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final int maxEntryBytes;
+    private final AtomicLong epoch = new AtomicLong();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Counter bypassed;
+    private final Counter uncacheable;
+    private final Counter invalidated;
+
+    public SearchResultCache(MeterRegistry meterRegistry,
+                             @Value("${search.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                             @Value("${search.cache.max-entry-bytes:1048576}") int maxEntryBytes,
+                             @Value("${search.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Key key, Entry entry) -> entry.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxEntryBytes = maxEntryBytes;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "search.results");
+        this.bypassed = meterRegistry.counter("search.results.cache.bypassed");
+        this.uncacheable = meterRegistry.counter("search.results.cache.uncacheable");
+        this.invalidated = meterRegistry.counter("search.results.cache.invalidated");
+    }
+
+    // Cached result for key, or loader's; bypass skips the lookup but still stores the fresh result
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, boolean bypass, Supplier<T> loader, ToIntFunction<T> weigher) {
+        if (bypass) {
+            bypassed.increment();
+        } else {
+            Entry cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return (T) cached.value();
+            }
+        }
+
+        long startEpoch = epoch.get();
+        T value = loader.get();
+        int weight = weigher.applyAsInt(value);
+        if (weight > maxEntryBytes) {
+            uncacheable.increment();
+            return value;
+        }
+        // The check and the put must not straddle an invalidation, or the stale value would outlive it
+        lock.readLock().lock();
+        try {
+            if (epoch.get() == startEpoch) {
+                cache.put(key, new Entry(value, weight));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return value;
+    }
+
+    @Override
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            epoch.incrementAndGet();
+            cache.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChanges(List<CaseChangeBatch.CaseChange> changes) {
+        lock.writeLock().lock();
+        try {
+            epoch.incrementAndGet();
+            if (changes.stream().anyMatch(change -> !"CREATED".equals(change.type()) || change.caseData() == null)) {
+                invalidated.increment(cache.estimatedSize());
+                cache.invalidateAll();
+                return;
+            }
+            long before = cache.estimatedSize();
+            cache.asMap().keySet().removeIf(key -> changes.stream().anyMatch(change -> key.matches(change.caseData())));
+            long removed = before - cache.estimatedSize();
+            if (removed > 0) {
+                invalidated.increment(removed);
+                log.debug("{} cached results invalidated by {} case changes", removed, changes.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rohit.search.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CaseExportControllerTests {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        insertCase(1, "Card, cloned", "He said \"refund\"\nthen hung up", "IN", 250, "Jo");
+        insertCase(2, "Plain", "Plain", "IN", 50, "Jo");
+        insertCase(3, "Elsewhere", "Elsewhere", "US", 500, "Jo");
+        insertCase(4, "Other reporter", "Other", "IN", 900, "Al");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void csvQuotesFieldsWithCommasQuotesAndLineBreaks() throws Exception {
+        String body = export("/search/cases/export?format=csv&country=IN&minAmount=100&reporter=Jo", "text/csv");
+
+        assertThat(body).isEqualTo("id,title,description,country,amount,reporter_name,created_at\r\n"
+                + "1,\"Card, cloned\",\"He said \"\"refund\"\"\nthen hung up\",IN,250,Jo,2025-03-01T09:00\r\n");
+    }
+
+    @Test
+    void ndjsonHasOneMatchingCasePerLine() throws Exception {
+        String body = export("/search/cases/export?format=NDJSON&country=IN&reporter=Jo", "application/x-ndjson");
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":1,", "\"description\":\"He said \\\"refund\\\"\\nthen hung up\"");
+        assertThat(lines[1]).contains("\"id\":2,", "\"country\":\"IN\"");
+    }
+
+    @Test
+    void unknownFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/search/cases/export?format=xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // The body is a StreamingResponseBody, written after an async dispatch
+    private String export(String url, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith(contentType)))
+                .andReturn();
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private void insertCase(long id, String title, String description, String country, long amount, String reporter) {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, title, description, country, amount, reporter, Timestamp.valueOf(CREATED));
+    }
+}
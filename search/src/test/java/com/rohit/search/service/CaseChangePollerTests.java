@@ -0,0 +1,138 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaseChangePollerTests {
+
+    private static final Pattern SINCE = Pattern.compile("since=(\\d+)");
+
+    private HttpServer dataService;
+    private final List<Long> requestedCursors = new ArrayList<>();
+    private volatile long head;
+
+    // Stand-in for data-service's change feed: one change per seq, up to `head`
+    @BeforeEach
+    void startDataService() throws IOException {
+        dataService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        dataService.createContext("/data/changes/head", exchange -> respond(exchange, "0"));
+        dataService.createContext("/data/changes", exchange -> {
+            Matcher since = SINCE.matcher(exchange.getRequestURI().getQuery());
+            long cursor = since.find() ? Long.parseLong(since.group(1)) : 0;
+            requestedCursors.add(cursor);
+            StringBuilder changes = new StringBuilder();
+            for (long seq = cursor + 1; seq <= head; seq++) {
+                changes.append(changes.isEmpty() ? "" : ",")
+                        .append("{\"seq\":").append(seq).append(",\"type\":\"CREATED\",\"caseData\":{\"id\":")
+                        .append(seq).append("}}");
+            }
+            respond(exchange, "{\"changes\":[" + changes + "],\"nextCursor\":" + Math.max(cursor, head)
+                    + ",\"hasMore\":false}");
+        });
+        dataService.start();
+    }
+
+    @AfterEach
+    void stopDataService() {
+        dataService.stop(0);
+    }
+
+    @Test
+    void listenerThatFailsIsReloadedOnTheNextPoll() {
+        RecordingListener healthy = new RecordingListener(0);
+        RecordingListener flaky = new RecordingListener(1);
+        CaseChangePoller poller = poller(List.of(healthy, flaky));
+        poller.start();
+
+        head = 2;
+        poller.poll();
+        assertThat(healthy.applied).containsExactly(1L, 2L);
+        assertThat(flaky.applied).isEmpty();
+
+        // The cursor moved on for everyone; the flaky listener catches up by reloading
+        head = 3;
+        poller.poll();
+        assertThat(requestedCursors).containsExactly(0L, 2L);
+        assertThat(flaky.reloads).isEqualTo(2);
+        assertThat(flaky.applied).containsExactly(3L);
+        assertThat(healthy.reloads).isEqualTo(1);
+        assertThat(healthy.applied).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void listenerIsSkippedUntilItsReloadSucceeds() {
+        RecordingListener broken = new RecordingListener(0);
+        broken.failReloads = 2;
+        CaseChangePoller poller = poller(List.of(broken));
+        poller.start();
+
+        head = 1;
+        poller.poll();
+        assertThat(broken.applied).isEmpty();
+
+        head = 2;
+        poller.poll();
+        assertThat(broken.reloads).isEqualTo(3);
+        assertThat(broken.applied).containsExactly(2L);
+    }
+
+    private CaseChangePoller poller(List<CaseChangeListener> listeners) {
+        return new CaseChangePoller(listeners, "http://localhost:" + dataService.getAddress().getPort(),
+                Duration.ofSeconds(2), 100);
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static class RecordingListener implements CaseChangeListener {
+
+        private final List<Long> applied = new ArrayList<>();
+        private int failChanges;
+        private int failReloads;
+        private int reloads;
+
+        RecordingListener(int failChanges) {
+            this.failChanges = failChanges;
+        }
+
+        @Override
+        public void reload() {
+            reloads++;
+            if (failReloads > 0) {
+                failReloads--;
+                throw new IllegalStateException("reload failed");
+            }
+        }
+
+        @Override
+        public void onChanges(List<CaseChangeBatch.CaseChange> changes) {
+            if (failChanges > 0) {
+                failChanges--;
+                throw new IllegalStateException("apply failed");
+            }
+            changes.forEach(change -> applied.add(change.seq()));
+        }
+    }
+}
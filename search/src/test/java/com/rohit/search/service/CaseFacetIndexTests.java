@@ -0,0 +1,166 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.FacetCounts;
+import com.rohit.search.repository.CaseFacetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The index must answer every filter exactly like the GROUP BY queries it replaces
+@SpringBootTest
+@ActiveProfiles("test")
+class CaseFacetIndexTests {
+
+    private static final List<BigDecimal> EDGES = List.of(BigDecimal.valueOf(100), BigDecimal.valueOf(500),
+            BigDecimal.valueOf(1000));
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 30, 23, 30);
+    private static final String[] COUNTRIES = {"IN", "US", "GB", null};
+    private static final String[] REPORTERS = {"Asha", "Ben", null};
+    private static final BigDecimal[] AMOUNTS = {null, BigDecimal.ZERO, new BigDecimal("99.99"), BigDecimal.valueOf(100),
+            new BigDecimal("100.01"), BigDecimal.valueOf(500), new BigDecimal("999.5"), BigDecimal.valueOf(1000),
+            BigDecimal.valueOf(25000)};
+
+    @Autowired
+    private CaseFacetRepository caseFacetRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CaseFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 60; id++) {
+            insert(id);
+        }
+        index = new CaseFacetIndex(caseFacetRepository, transactionManager);
+        index.reload();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void everyFilterCombinationMatchesSql() {
+        assertThat(index.isReady()).isTrue();
+        for (CaseSearchCriteria criteria : criteriaCombinations()) {
+            assertSameCounts(criteria);
+        }
+    }
+
+    @Test
+    void changesKeepTheIndexInStepWithTheTable() {
+        List<CaseChangeBatch.CaseChange> changes = new ArrayList<>();
+        for (long id = 61; id <= 80; id++) {
+            insert(id);
+            changes.add(created(id));
+        }
+        // Replays of cases the index already has, as after the startup reload, must not count twice
+        changes.add(created(5));
+        changes.add(created(61));
+
+        index.onChanges(changes);
+
+        for (CaseSearchCriteria criteria : criteriaCombinations()) {
+            assertSameCounts(criteria);
+        }
+    }
+
+    @Test
+    void unknownCountryOrReporterCountsNothing() {
+        CaseSearchCriteria criteria = criteria(c -> c.setCountry("FR"));
+        FacetCounts counts = index.aggregate(criteria, EDGES);
+
+        assertThat(counts.total()).isZero();
+        assertThat(counts.amounts()).containsOnly(0L).hasSize(EDGES.size() + 1);
+        assertSameCounts(criteria);
+        assertSameCounts(criteria(c -> c.setReporter("Nobody")));
+    }
+
+    private void assertSameCounts(CaseSearchCriteria criteria) {
+        FacetCounts fromIndex = index.aggregate(criteria, EDGES);
+        FacetCounts fromSql = caseFacetRepository.aggregate(criteria, EDGES);
+        assertThat(fromIndex.total()).as("total for %s", criteria).isEqualTo(fromSql.total());
+        assertThat(fromIndex.countries()).as("countries for %s", criteria).isEqualTo(fromSql.countries());
+        assertThat(fromIndex.amounts()).as("amounts for %s", criteria).isEqualTo(fromSql.amounts());
+        assertThat(fromIndex.days()).as("days for %s", criteria).isEqualTo(fromSql.days());
+    }
+
+    private static List<CaseSearchCriteria> criteriaCombinations() {
+        List<CaseSearchCriteria> all = new ArrayList<>();
+        all.add(new CaseSearchCriteria());
+        all.add(criteria(c -> c.setCountry("IN")));
+        all.add(criteria(c -> c.setReporter("Ben")));
+        all.add(criteria(c -> c.setMinAmount(BigDecimal.valueOf(100))));
+        all.add(criteria(c -> c.setMaxAmount(BigDecimal.valueOf(500))));
+        all.add(criteria(c -> {
+            c.setMinAmount(new BigDecimal("99.99"));
+            c.setMaxAmount(BigDecimal.valueOf(1000));
+        }));
+        // Boundaries fall on rows: createdFrom is inclusive, createdTo exclusive
+        all.add(criteria(c -> c.setCreatedFrom(BASE.plusHours(7))));
+        all.add(criteria(c -> c.setCreatedTo(BASE.plusHours(7))));
+        all.add(criteria(c -> {
+            c.setCountry("US");
+            c.setReporter("Asha");
+            c.setMinAmount(BigDecimal.ZERO);
+            c.setCreatedFrom(BASE.plusHours(2));
+            c.setCreatedTo(BASE.plusDays(2));
+        }));
+        return all;
+    }
+
+    private static CaseSearchCriteria criteria(Consumer<CaseSearchCriteria> filters) {
+        CaseSearchCriteria criteria = new CaseSearchCriteria();
+        filters.accept(criteria);
+        return criteria;
+    }
+
+    private void insert(long id) {
+        jdbcTemplate.update("INSERT INTO cases (id, title, country, amount, reporter_name, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                id, "Case " + id, country(id), amount(id), reporter(id), Timestamp.valueOf(createdAt(id)));
+    }
+
+    private static CaseChangeBatch.CaseChange created(long id) {
+        return new CaseChangeBatch.CaseChange(id, "CREATED", createdAt(id), new CaseChangeBatch.ChangedCase(id,
+                "Case " + id, null, country(id), amount(id), reporter(id), createdAt(id)));
+    }
+
+    private static String country(long id) {
+        return COUNTRIES[(int) (id % COUNTRIES.length)];
+    }
+
+    private static String reporter(long id) {
+        return REPORTERS[(int) (id % REPORTERS.length)];
+    }
+
+    private static BigDecimal amount(long id) {
+        return AMOUNTS[(int) (id % AMOUNTS.length)];
+    }
+
+    // Spread over several days, crossing a month end, with rows on whole hours
+    private static LocalDateTime createdAt(long id) {
+        return BASE.plusHours(id);
+    }
+}
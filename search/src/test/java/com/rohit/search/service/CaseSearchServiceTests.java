@@ -0,0 +1,136 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseCursor;
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseSearchPage;
+import com.rohit.search.dto.CaseSort;
+import com.rohit.search.dto.CaseSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CaseSearchServiceTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 9, 0);
+    private static final int CASES = 30;
+
+    @Autowired
+    private CaseSearchService caseSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<CaseSummary> seeded = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        // Few distinct timestamps and amounts, so most rows tie on the sort column and only id orders them
+        for (long id = 1; id <= CASES; id++) {
+            LocalDateTime createdAt = BASE.plusHours(id % 5);
+            BigDecimal amount = BigDecimal.valueOf(100L * (id % 4));
+            String country = id % 3 == 0 ? "US" : "IN";
+            String reporter = "Reporter " + (id % 2);
+            jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name, created_at) "
+                            + "VALUES (?, ?, 'd', ?, ?, ?, ?)",
+                    id, "Case " + id, country, amount, reporter, Timestamp.valueOf(createdAt));
+            seeded.add(new CaseSummary(id, "Case " + id, country, amount, reporter, createdAt));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void pagesVisitEveryCaseOnceInSortOrder() {
+        Comparator<CaseSummary> byCreated = Comparator.comparing(CaseSummary::createdAt).thenComparing(CaseSummary::id);
+        Comparator<CaseSummary> byAmount = Comparator.comparing(CaseSummary::amount).thenComparing(CaseSummary::id);
+        Comparator<CaseSummary> byId = Comparator.comparing(CaseSummary::id);
+
+        assertPagedOrder("createdAt", "desc", new CaseSearchCriteria(), byCreated.reversed());
+        assertPagedOrder("createdAt", "asc", new CaseSearchCriteria(), byCreated);
+        assertPagedOrder("amount", "desc", new CaseSearchCriteria(), byAmount.reversed());
+        assertPagedOrder("amount", "asc", new CaseSearchCriteria(), byAmount);
+        assertPagedOrder("id", "desc", new CaseSearchCriteria(), byId.reversed());
+        assertPagedOrder("id", "asc", new CaseSearchCriteria(), byId);
+    }
+
+    @Test
+    void filtersApplyOnEveryPage() {
+        CaseSearchCriteria criteria = new CaseSearchCriteria();
+        criteria.setCountry("IN");
+        criteria.setMinAmount(BigDecimal.valueOf(100));
+        criteria.setReporter("Reporter 1");
+
+        assertPagedOrder("createdAt", "desc", criteria,
+                Comparator.comparing(CaseSummary::createdAt).thenComparing(CaseSummary::id).reversed());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CaseSearchPage page = caseSearchService.search(new CaseSearchCriteria(), "id", "asc", null, CASES, false);
+        assertThat(page.getItems()).hasSize(CASES);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorForAnotherSortOrMalformedIsRejected() {
+        CaseSearchPage first = caseSearchService.search(new CaseSearchCriteria(), "createdAt", "desc", null, 5, false);
+        String cursor = first.getNextCursor();
+
+        assertBadRequest(() -> caseSearchService.search(new CaseSearchCriteria(), "createdAt", "asc", cursor, 5, false));
+        assertBadRequest(() -> caseSearchService.search(new CaseSearchCriteria(), "amount", "desc", cursor, 5, false));
+        assertBadRequest(() -> caseSearchService.search(new CaseSearchCriteria(), "createdAt", "desc", "not a cursor", 5, false));
+        String badValue = new CaseCursor(CaseSort.AMOUNT, true, "abc", 3).encode();
+        assertBadRequest(() -> caseSearchService.search(new CaseSearchCriteria(), "amount", "desc", badValue, 5, false));
+    }
+
+    private void assertPagedOrder(String sort, String order, CaseSearchCriteria criteria,
+                                  Comparator<CaseSummary> expectedOrder) {
+        List<Long> expected = seeded.stream()
+                .filter(c -> criteria.getCountry() == null || criteria.getCountry().equals(c.country()))
+                .filter(c -> criteria.getMinAmount() == null || c.amount().compareTo(criteria.getMinAmount()) >= 0)
+                .filter(c -> criteria.getReporter() == null || criteria.getReporter().equals(c.reporterName()))
+                .sorted(expectedOrder)
+                .map(CaseSummary::id)
+                .toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CaseSearchPage page = caseSearchService.search(criteria, sort, order, cursor, 4, false);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+            page.getItems().forEach(item -> paged.add(item.id()));
+            cursor = page.getNextCursor();
+            assertThat(++pages).as("pages for %s %s", sort, order).isLessThanOrEqualTo(CASES);
+        } while (cursor != null);
+
+        assertThat(paged).as("%s %s", sort, order).containsExactlyElementsOf(expected);
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,106 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseSearchCriteria;
+import com.rohit.search.dto.CaseTextHit;
+import com.rohit.search.dto.CaseTextPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// H2 has no text index, so these cover the LIKE fallback
+@SpringBootTest(properties = {"search.text.page-size=5", "search.text.max-results=10"})
+@ActiveProfiles("test")
+class CaseTextSearchTests {
+
+    @Autowired
+    private CaseSearchService caseSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cases");
+    }
+
+    @Test
+    void everyWordMustMatchAndTitleHitsRankFirst() {
+        insert(1, "Water leak", "Pipe burst under the sink", "IN");
+        insert(2, "Kitchen", "Water leak behind the fridge", "IN");
+        insert(3, "Water damage", "Ceiling stain", "IN");
+        insert(4, "Leak in WATER tank", "Roof tank", "IN");
+
+        CaseTextPage page = caseSearchService.searchText("water LEAK", new CaseSearchCriteria(), 0, null, true);
+
+        // Both words in the title (4 points) beat both in the description (2); ties go to the newer id
+        assertThat(page.getItems()).extracting(CaseTextHit::id).containsExactly(4L, 1L, 2L);
+        assertThat(page.getItems().get(0).rank()).isGreaterThan(page.getItems().get(2).rank());
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    void matchesAreMarkedAndCaseTextIsEscaped() {
+        insert(1, "<b>Broken</b> window", "The window & frame", "IN");
+
+        CaseTextHit hit = caseSearchService.searchText("Window", new CaseSearchCriteria(), 0, null, true)
+                .getItems().get(0);
+
+        assertThat(hit.title()).isEqualTo("&lt;b&gt;Broken&lt;/b&gt; <mark>window</mark>");
+        assertThat(hit.snippet()).isEqualTo("The <mark>window</mark> &amp; frame");
+    }
+
+    @Test
+    void longDescriptionsAreCutToAWindowAroundTheFirstMatch() {
+        String description = "x".repeat(300) + " flood " + "y".repeat(300);
+        insert(1, "Basement", description, "IN");
+
+        String snippet = caseSearchService.searchText("flood", new CaseSearchCriteria(), 0, null, true)
+                .getItems().get(0).snippet();
+
+        assertThat(snippet).startsWith("...").endsWith("...").contains("<mark>flood</mark>");
+        assertThat(snippet.length()).isLessThan(description.length() / 2);
+    }
+
+    @Test
+    void filtersAndPagesApply() {
+        for (long id = 1; id <= 7; id++) {
+            insert(id, "Storm " + id, "Tree down", id % 2 == 0 ? "US" : "IN");
+        }
+        CaseSearchCriteria inIndia = new CaseSearchCriteria();
+        inIndia.setCountry("IN");
+
+        CaseTextPage first = caseSearchService.searchText("storm", inIndia, 0, 3, true);
+        CaseTextPage second = caseSearchService.searchText("storm", inIndia, 1, 3, true);
+
+        assertThat(first.getItems()).extracting(CaseTextHit::id).containsExactly(7L, 5L, 3L);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getItems()).extracting(CaseTextHit::id).containsExactly(1L);
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    void blankQueriesAndPagesPastMaxResultsAreRejected() {
+        assertBadRequest(() -> caseSearchService.searchText(" ", new CaseSearchCriteria(), 0, null, true));
+        assertBadRequest(() -> caseSearchService.searchText("storm", new CaseSearchCriteria(), 3, 3, true));
+        assertThat(caseSearchService.searchText("%_", new CaseSearchCriteria(), 0, null, true).getItems()).isEmpty();
+    }
+
+    private void insert(long id, String title, String description, String country) {
+        jdbcTemplate.update("INSERT INTO cases (id, title, description, country, amount, reporter_name) "
+                + "VALUES (?, ?, ?, ?, 10, 'Jo')", id, title, description, country);
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,139 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseSuggestions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTests {
+
+    private static final String[] SYLLABLES = {"a", "an", "b", "ba", "é", "ü", "z", "zz", "日", " "};
+
+    @Test
+    void topReturnsMostUsedKeysOfThePrefixWithTiesInKeyOrder() {
+        PrefixIndex index = PrefixIndex.of(List.of(
+                entry("water leak", "Water Leak", 5),
+                entry("water damage", "Water damage", 9),
+                entry("waterfall", "Waterfall", 5),
+                entry("wall crack", "Wall crack", 20),
+                entry("window", "Window", 1)));
+
+        assertThat(texts(index.top("water", 10))).containsExactly("Water damage", "Water Leak", "Waterfall");
+        assertThat(index.top("water", 10)).extracting(CaseSuggestions.Suggestion::count).containsExactly(9L, 5L, 5L);
+        assertThat(texts(index.top("wa", 2))).containsExactly("Wall crack", "Water damage");
+        assertThat(texts(index.top("", 1))).containsExactly("Wall crack");
+        assertThat(index.top("x", 10)).isEmpty();
+        assertThat(index.top("water leaks", 10)).isEmpty();
+    }
+
+    @Test
+    void countAndDisplayFollowTheKey() {
+        PrefixIndex index = PrefixIndex.of(List.of(entry("café", "Café", 3), entry("cafe", "cafe", 2)));
+
+        assertThat(index.count("café")).isEqualTo(3);
+        assertThat(index.count("cafe")).isEqualTo(2);
+        assertThat(index.count("caf")).isZero();
+        assertThat(texts(index.top("caf", 10))).containsExactly("Café", "cafe");
+        assertThat(PrefixIndex.EMPTY.top("", 10)).isEmpty();
+        assertThat(PrefixIndex.EMPTY.count("a")).isZero();
+    }
+
+    @Test
+    void plusSumsKnownKeysAndInsertsNewOnes() {
+        PrefixIndex index = PrefixIndex.of(List.of(entry("oak", "Oak", 2), entry("pine", "Pine", 4)))
+                .plus(List.of(entry("oak", "OAK", 3), entry("elm", "Elm", 1), entry("pin", "Pin", 7)));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.count("oak")).isEqualTo(5);
+        // The display form already in the index is kept
+        assertThat(texts(index.top("o", 10))).containsExactly("Oak");
+        assertThat(texts(index.top("pi", 10))).containsExactly("Pin", "Pine");
+        assertThat(texts(index.top("", 10))).containsExactly("Pin", "Oak", "Pine", "Elm");
+    }
+
+    @Test
+    void plusSaturatesInsteadOfOverflowing() {
+        PrefixIndex index = PrefixIndex.of(List.of(entry("x", "x", Integer.MAX_VALUE - 1)))
+                .plus(List.of(entry("x", "x", 5)));
+
+        assertThat(index.count("x")).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void matchesBruteForceOnRandomKeys() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        PrefixIndex index = PrefixIndex.EMPTY;
+
+        // Several merges, so plus() is checked on indexes it built itself
+        for (int round = 0; round < 5; round++) {
+            Map<String, PrefixIndex.Entry> batch = new HashMap<>();
+            for (int i = 0; i < 400; i++) {
+                String key = randomKey(random);
+                int count = 1 + random.nextInt(random.nextBoolean() ? 3 : 1000);
+                // Display forms are always the upper-cased key, so the expected suggestions can be derived
+                batch.merge(key, entry(key, key.toUpperCase(), count),
+                        (a, b) -> entry(key, a.display(), a.count() + b.count()));
+            }
+            batch.values().forEach(e -> expected.merge(e.key(), e.count(), Integer::sum));
+            index = round == 0 ? PrefixIndex.of(batch.values()) : index.plus(batch.values());
+
+            assertThat(index.size()).isEqualTo(expected.size());
+            for (int i = 0; i < 200; i++) {
+                String key = randomKey(random);
+                String prefix = key.substring(0, random.nextInt(Math.min(key.length(), 3) + 1));
+                int limit = 1 + random.nextInt(12);
+                assertThat(index.top(prefix, limit))
+                        .as("top(%s, %d)", prefix, limit)
+                        .containsExactlyElementsOf(bruteForceTop(expected, prefix, limit));
+            }
+        }
+        for (Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertThat(index.count(e.getKey())).isEqualTo(e.getValue());
+        }
+    }
+
+    // Most cases first, equal counts in the unsigned UTF-8 order the index keeps its keys in
+    private static List<CaseSuggestions.Suggestion> bruteForceTop(Map<String, Integer> counts, String prefix, int limit) {
+        byte[] p = prefix.getBytes(StandardCharsets.UTF_8);
+        return counts.entrySet().stream()
+                .filter(e -> startsWith(e.getKey().getBytes(StandardCharsets.UTF_8), p))
+                .sorted(Comparator.comparing((Map.Entry<String, Integer> e) -> e.getValue()).reversed()
+                        .thenComparing(e -> e.getKey().getBytes(StandardCharsets.UTF_8), Arrays::compareUnsigned))
+                .limit(limit)
+                .map(e -> new CaseSuggestions.Suggestion(e.getKey().toUpperCase(), e.getValue()))
+                .toList();
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        int parts = 1 + random.nextInt(4);
+        for (int i = 0; i < parts; i++) {
+            key.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return key.toString();
+    }
+
+    private static PrefixIndex.Entry entry(String key, String display, int count) {
+        return new PrefixIndex.Entry(key, display, count);
+    }
+
+    private static List<String> texts(List<CaseSuggestions.Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        suggestions.forEach(s -> texts.add(s.text()));
+        return texts;
+    }
+}
@@ -0,0 +1,126 @@
+package com.rohit.search.service;
+
+import com.rohit.search.dto.CaseChangeBatch;
+import com.rohit.search.dto.CaseSearchCriteria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTests {
+
+    private final SearchResultCache cache = new SearchResultCache(new SimpleMeterRegistry(), 1_000_000, 10_000,
+            Duration.ofMinutes(10));
+
+    @Test
+    void resultIsServedFromCacheUntilAMatchingCaseArrives() {
+        SearchResultCache.Key inIndia = key("IN");
+        SearchResultCache.Key inUs = key("US");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(get(inIndia, loads::incrementAndGet)).isEqualTo(1);
+        assertThat(get(inIndia, loads::incrementAndGet)).isEqualTo(1);
+        assertThat(get(inUs, loads::incrementAndGet)).isEqualTo(2);
+
+        cache.onChanges(List.of(created(10, "IN")));
+
+        assertThat(get(inIndia, loads::incrementAndGet)).isEqualTo(3);
+        assertThat(get(inUs, loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void updatedChangeClearsEverything() {
+        SearchResultCache.Key inUs = key("US");
+        AtomicInteger loads = new AtomicInteger();
+        get(inUs, loads::incrementAndGet);
+
+        cache.onChanges(List.of(new CaseChangeBatch.CaseChange(11, "UPDATED", LocalDateTime.now(), caseIn(11, "IN"))));
+
+        assertThat(get(inUs, loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void resultLoadedAcrossAnInvalidationIsReturnedButNotStored() {
+        SearchResultCache.Key inIndia = key("IN");
+        AtomicInteger loads = new AtomicInteger();
+
+        // The change is applied while the query runs, so the query may have missed the new case
+        int first = get(inIndia, () -> {
+            cache.onChanges(List.of(created(12, "US")));
+            return loads.incrementAndGet();
+        });
+
+        assertThat(first).isEqualTo(1);
+        assertThat(get(inIndia, loads::incrementAndGet)).isEqualTo(2);
+        assertThat(get(inIndia, loads::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void noStaleResultSurvivesConcurrentInvalidations() throws Exception {
+        SearchResultCache.Key key = key("IN");
+        AtomicLong version = new AtomicLong();
+        AtomicLong invalidatedUpTo = new AtomicLong();
+        AtomicLong staleReads = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(readers.submit(() -> {
+                while (running.get()) {
+                    // Anything returned after an invalidation finished must have been loaded after it began
+                    long floor = invalidatedUpTo.get();
+                    if (cache.get(key, false, version::get, value -> 64) < floor) {
+                        staleReads.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Each new case changes what the query would return, then invalidates it
+        for (long id = 1; id <= 20_000; id++) {
+            long current = version.incrementAndGet();
+            cache.onChanges(List.of(created(id, "IN")));
+            invalidatedUpTo.set(current);
+        }
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        readers.shutdown();
+
+        assertThat(staleReads.get()).isZero();
+        assertThat(cache.get(key, false, () -> -1L, value -> 64)).isIn(version.get(), -1L);
+    }
+
+    private int get(SearchResultCache.Key key, Supplier<Integer> loader) {
+        return cache.get(key, false, loader, value -> 64);
+    }
+
+    private static SearchResultCache.Key key(String country) {
+        CaseSearchCriteria criteria = new CaseSearchCriteria();
+        criteria.setCountry(country);
+        return SearchResultCache.Key.list(criteria, "createdAt", true, null, 50);
+    }
+
+    private static CaseChangeBatch.CaseChange created(long id, String country) {
+        return new CaseChangeBatch.CaseChange(id, "CREATED", LocalDateTime.now(), caseIn(id, country));
+    }
+
+    private static CaseChangeBatch.ChangedCase caseIn(long id, String country) {
+        return new CaseChangeBatch.ChangedCase(id, "Case " + id, null, country, BigDecimal.TEN, "Jo", LocalDateTime.now());
+    }
+}
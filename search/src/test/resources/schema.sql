@@ -0,0 +1,14 @@
+-- H2 copy of the cases table search-service reads, as data-service's Liquibase changelog leaves it
+CREATE TABLE IF NOT EXISTS cases (
+    id            BIGINT PRIMARY KEY,
+    title         VARCHAR(255) NOT NULL,
+    description   TEXT,
+    country       VARCHAR(10),
+    amount        NUMERIC,
+    reporter_name VARCHAR(255),
+    created_at    TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS ix_cases_created_at_id ON cases (created_at, id);
+CREATE INDEX IF NOT EXISTS ix_cases_country_created_at_id ON cases (country, created_at, id);
+CREATE INDEX IF NOT EXISTS ix_cases_amount_id ON cases (amount, id);
+CREATE INDEX IF NOT EXISTS ix_cases_reporter_created_at_id ON cases (reporter_name, created_at, id);
@@ -1,13 +1,15 @@
 import { useState, useEffect } from "react";
 import { CreateCaseForm } from "./components/CreateCaseForm";
 import { CaseList } from "./components/CaseList";
-import { getAllCases } from "./api/caseApi";
-import { CaseDto } from "./types/case";
+import { getCasesPage } from "./api/caseApi";
+import { CaseSummary } from "./types/case";
 import "./App.css";
 
 function App() {
-    const [cases, setCases] = useState<CaseDto[]>([]);
+    const [cases, setCases] = useState<CaseSummary[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
     const [loadingCases, setLoadingCases] = useState(false);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [casesError, setCasesError] = useState("");
     const [showCreateForm, setShowCreateForm] = useState(false);
 
@@ -19,8 +21,9 @@ function App() {
         setLoadingCases(true);
         setCasesError("");
         try {
-            const data = await getAllCases();
-            setCases(data);
+            const page = await getCasesPage();
+            setCases(page.items);
+            setNextCursor(page.nextCursor);
         } catch (error) {
             setCasesError("Failed to load cases. Please refresh the page.");
         } finally {
@@ -28,6 +31,23 @@ function App() {
         }
     };
 
+    const loadMoreCases = async () => {
+        if (!nextCursor) {
+            return;
+        }
+        setLoadingMore(true);
+        setCasesError("");
+        try {
+            const page = await getCasesPage(nextCursor);
+            setCases((loaded) => [...loaded, ...page.items]);
+            setNextCursor(page.nextCursor);
+        } catch (error) {
+            setCasesError("Failed to load more cases. Please try again.");
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleCaseCreated = () => {
         loadCases();
         setShowCreateForm(false);
@@ -52,7 +72,14 @@ function App() {
                 </section>
 
                 <section className="case-list-section">
-                    <CaseList cases={cases} loading={loadingCases} error={casesError} />
+                    <CaseList
+                        cases={cases}
+                        loading={loadingCases}
+                        error={casesError}
+                        hasMore={nextCursor !== null}
+                        loadingMore={loadingMore}
+                        onLoadMore={loadMoreCases}
+                    />
                 </section>
             </main>
         </div>
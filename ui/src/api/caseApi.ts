@@ -1,5 +1,5 @@
 import { dataClient, searchClient } from "./httpClient";
-import { CaseDto, CreateCasePayload } from "../types/case";
+import { CaseDto, CaseSearchPage, CreateCasePayload } from "../types/case";
 
 export const getNextCaseId = async (): Promise<number> => {
     const response = await dataClient.get<number>("/data/cases/next-id");
@@ -11,7 +11,10 @@ export const createCase = async (payload: CreateCasePayload): Promise<CaseDto> =
     return response.data;
 };
 
-export const getAllCases = async (): Promise<CaseDto[]> => {
-    const response = await searchClient.get<CaseDto[]>("/search/cases");
+// Newest cases first; omit cursor for the first page
+export const getCasesPage = async (cursor?: string): Promise<CaseSearchPage> => {
+    const response = await searchClient.get<CaseSearchPage>("/search/cases", {
+        params: cursor ? { cursor } : undefined
+    });
     return response.data;
 };
@@ -1,13 +1,16 @@
 import React from "react";
-import { CaseDto } from "../types/case";
+import { CaseSummary } from "../types/case";
 
 interface CaseListProps {
-    cases: CaseDto[];
+    cases: CaseSummary[];
     loading: boolean;
     error?: string;
+    hasMore: boolean;
+    loadingMore: boolean;
+    onLoadMore: () => void;
 }
 
-export const CaseList: React.FC<CaseListProps> = ({ cases, loading, error }) => {
+export const CaseList: React.FC<CaseListProps> = ({ cases, loading, error, hasMore, loadingMore, onLoadMore }) => {
     const formatDate = (dateString: string): string => {
         try {
             const date = new Date(dateString);
@@ -29,7 +32,8 @@ export const CaseList: React.FC<CaseListProps> = ({ cases, loading, error }) =>
         return <div className="case-list-loading">Loading cases...</div>;
     }
 
-    if (error) {
+    // Keep already loaded pages on screen when only "Load more" failed
+    if (error && cases.length === 0) {
         return <div className="case-list-error">Error: {error}</div>;
     }
 
@@ -64,6 +68,14 @@ export const CaseList: React.FC<CaseListProps> = ({ cases, loading, error }) =>
                     ))}
                 </tbody>
             </table>
+            {error && <div className="case-list-error">Error: {error}</div>}
+            {hasMore && (
+                <div className="case-list-more">
+                    <button className="load-more-btn" onClick={onLoadMore} disabled={loadingMore}>
+                        {loadingMore ? "Loading..." : "Load more"}
+                    </button>
+                </div>
+            )}
         </div>
     );
 };
@@ -8,6 +8,22 @@ export interface CaseDto {
     createdAt: string;
 }
 
+// A case as listed by GET /search/cases, without its description
+export interface CaseSummary {
+    id: number;
+    title: string;
+    country: string;
+    amount: number;
+    reporterName: string;
+    createdAt: string;
+}
+
+// One page of GET /search/cases; pass nextCursor back as ?cursor= for the next page
+export interface CaseSearchPage {
+    items: CaseSummary[];
+    nextCursor: string | null;
+}
+
 export interface CreateCasePayload {
     id: number;
     title: string;